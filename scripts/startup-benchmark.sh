@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request and warm-up RSS of the packaged jar in several startup modes and prints one
+# JSON object per mode.
+#
+#   mvn -Paot package -DskipTests && scripts/startup-benchmark.sh [jar] [modes...]
+#
+# Modes: plain, cds, aot, aot-cds. The aot modes need a jar built with -Paot. The cds modes first run a
+# training start that dumps a class-data archive next to the extracted jar. This is the same archive the
+# Dockerfile builds.
+set -euo pipefail
+
+JAR=${1:-target/ovintocrew-0.0.1-SNAPSHOT.jar}
+shift || true
+MODES=${*:-plain cds aot aot-cds}
+PORT=${PORT:-18080}
+RUNS=${RUNS:-3}
+WARMUP_REQUESTS=${WARMUP_REQUESTS:-20}
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/app" >/dev/null
+APP_JAR=$(ls "$WORK"/app/*.jar)
+COMMON=(-Dserver.port="$PORT" -Demployee.store.directory= -Dspring.profiles.active=prod)
+ROSTER='<Company><Employee id="1"><FirstName>A</FirstName><LastName>B</LastName><Email>a@b.c</Email></Employee></Company>'
+
+now_ms() { date +%s%3N; }
+
+mode_flags() {
+  case "$1" in
+    plain) ;;
+    cds) echo "-XX:SharedArchiveFile=$WORK/plain.jsa" ;;
+    aot) echo "-Dspring.aot.enabled=true" ;;
+    aot-cds) echo "-Dspring.aot.enabled=true -XX:SharedArchiveFile=$WORK/aot.jsa" ;;
+    *) echo "Unknown mode $1" >&2; exit 1 ;;
+  esac
+}
+
+train() {
+  local archive=$1; shift
+  [[ -f "$archive" ]] || java -XX:ArchiveClassesAtExit="$archive" -Dspring.context.exit=onRefresh "${COMMON[@]}" "$@" \
+      -jar "$APP_JAR" >/dev/null 2>&1
+}
+
+for mode in $MODES; do
+  case "$mode" in
+    cds) train "$WORK/plain.jsa" ;;
+    aot-cds) train "$WORK/aot.jsa" -Dspring.aot.enabled=true ;;
+  esac
+  total_ttfr=0
+  total_rss=0
+  for run in $(seq 1 "$RUNS"); do
+    start=$(now_ms)
+    # shellcheck disable=SC2046
+    java $(mode_flags "$mode") "${COMMON[@]}" -jar "$APP_JAR" >"$WORK/$mode.log" 2>&1 &
+    pid=$!
+    until curl -sf "http://localhost:$PORT/actuator/health" >/dev/null; do
+      kill -0 "$pid" 2>/dev/null || { echo "Startup failed in mode $mode, see log:" >&2; cat "$WORK/$mode.log" >&2; exit 1; }
+      sleep 0.02
+    done
+    ttfr=$(( $(now_ms) - start ))
+    for _ in $(seq 1 "$WARMUP_REQUESTS"); do
+      curl -s -m 30 -o /dev/null -X POST -H 'Content-Type: application/xml' --data "$ROSTER" \
+          "http://localhost:$PORT/api/employees/process" || true
+    done
+    rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    total_ttfr=$(( total_ttfr + ttfr ))
+    total_rss=$(( total_rss + rss ))
+  done
+  printf '{"mode":"%s","runs":%d,"timeToFirstRequestMs":%d,"warmRssMb":%d}\n' \
+      "$mode" "$RUNS" $(( total_ttfr / RUNS )) $(( total_rss / RUNS / 1024 ))
+done
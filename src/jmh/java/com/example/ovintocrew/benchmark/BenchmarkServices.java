@@ -0,0 +1,38 @@
+package com.example.ovintocrew.benchmark;
+
+import com.example.ovintocrew.metrics.ProximityMetrics;
+import com.example.ovintocrew.service.DistanceBatcher;
+import com.example.ovintocrew.service.EmployeeService;
+import com.example.ovintocrew.service.ResolutionScheduler;
+import com.example.ovintocrew.service.RosterSnapshot;
+import com.example.ovintocrew.store.LocationStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+
+/**
+ * Wires an {@link EmployeeService} to stub clients the way Spring would, including its {@code @Value} fields.
+ */
+final class BenchmarkServices {
+
+    private BenchmarkServices() {
+    }
+
+    static EmployeeService employeeService(StubLocationClient locationClient, DistanceBatcher distanceBatcher) {
+        EmployeeService employeeService = new EmployeeService(locationClient, distanceBatcher,
+                new ProximityMetrics(new SimpleMeterRegistry()), new RosterSnapshot(false, Duration.ZERO),
+                new LocationStore("", Duration.ZERO, 1, 2.0), new ResolutionScheduler(256, 2));
+        setField(employeeService, "hqLat", RosterGenerator.HQ_LAT);
+        setField(employeeService, "hqLon", RosterGenerator.HQ_LON);
+        setField(employeeService, "thresholdKm", 30.0);
+        return employeeService;
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.ovintocrew.benchmark;
+
+import com.example.ovintocrew.Util.DistanceUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Haversine cost per roster size, one call per employee versus the batch kernel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistanceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int employees;
+
+    private double[] lats;
+    private double[] lons;
+    private double[] distances;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        lats = new double[employees];
+        lons = new double[employees];
+        distances = new double[employees];
+        for (int i = 0; i < employees; i++) {
+            lats[i] = RosterGenerator.HQ_LAT + random.nextDouble(-2, 2);
+            lons[i] = RosterGenerator.HQ_LON + random.nextDouble(-3, 3);
+        }
+    }
+
+    @Benchmark
+    public double[] calculateDistance() {
+        for (int i = 0; i < employees; i++) {
+            distances[i] = DistanceUtil.calculateDistance(RosterGenerator.HQ_LAT, RosterGenerator.HQ_LON, lats[i], lons[i]);
+        }
+        return distances;
+    }
+
+    @Benchmark
+    public double[] calculateDistances() {
+        DistanceUtil.calculateDistances(RosterGenerator.HQ_LAT, RosterGenerator.HQ_LON, lats, lons, distances);
+        return distances;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ovintocrew.benchmark;
+
+import com.example.ovintocrew.metrics.ProximityMetrics;
+import com.example.ovintocrew.model.dto.Employee;
+import com.example.ovintocrew.model.dto.EmployeeProximityResponse;
+import com.example.ovintocrew.service.DistanceBatcher;
+import com.example.ovintocrew.service.EmployeeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end fan-out and aggregation of {@link EmployeeService#processEmployeesIncrementally} against stub
+ * clients with configurable latency and error rates. Sample mode reports the p50/p99/p999 of whole runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ProximityPipelineBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int employees;
+
+    @Param({"0", "2"})
+    public double latencyMillis;
+
+    @Param({"0.0", "0.05"})
+    public double errorRate;
+
+    private List<Employee> roster;
+    private DistanceBatcher distanceBatcher;
+    private EmployeeService employeeService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        roster = RosterGenerator.employees(employees);
+        distanceBatcher = new DistanceBatcher(new StubGoogleDistanceClient(latencyMillis, errorRate), 25, 20,
+                new ProximityMetrics(new SimpleMeterRegistry()));
+        employeeService = BenchmarkServices.employeeService(new StubLocationClient(latencyMillis, errorRate), distanceBatcher);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        distanceBatcher.destroy();
+    }
+
+    @Benchmark
+    public EmployeeProximityResponse processEmployeesIncrementally() {
+        return employeeService.processEmployeesIncrementally(roster);
+    }
+}
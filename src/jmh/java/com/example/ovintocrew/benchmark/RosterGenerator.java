@@ -0,0 +1,63 @@
+package com.example.ovintocrew.benchmark;
+
+import com.example.ovintocrew.model.dto.Employee;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic rosters: employee {@code i} always gets the same name and a position within a few
+ * hundred km of the HQ, so runs are comparable across builds.
+ */
+public final class RosterGenerator {
+
+    public static final double HQ_LAT = 51.10;
+    public static final double HQ_LON = 3.43;
+
+    private RosterGenerator() {
+    }
+
+    public static byte[] xml(int size) {
+        return xml(size, 0, size);
+    }
+
+    /**
+     * A roster of {@code size} consecutive ids starting at {@code firstId} and wrapping around at
+     * {@code idSpace}, so rosters drawn from one id space overlap the way repeated real uploads do.
+     */
+    public static byte[] xml(int size, int firstId, int idSpace) {
+        StringBuilder xml = new StringBuilder(size * 160).append("<?xml version=\"1.0\"?>\n<Company name=\"Ovinto\">\n");
+        for (int n = 0; n < size; n++) {
+            int i = (firstId + n) % idSpace;
+            xml.append("  <Employee id=\"").append(i).append("\">\n")
+                    .append("    <FirstName>First").append(i).append("</FirstName>\n")
+                    .append("    <LastName>Last").append(i).append("</LastName>\n")
+                    .append("    <Email>employee").append(i).append("@example.com</Email>\n")
+                    .append("  </Employee>\n");
+        }
+        return xml.append("</Company>\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static List<Employee> employees(int size) {
+        List<Employee> employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            employees.add(Employee.builder()
+                    .id(String.valueOf(i))
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .email("employee" + i + "@example.com")
+                    .build());
+        }
+        return employees;
+    }
+
+    public static double latitude(String employeeId) {
+        return HQ_LAT + (new SplittableRandom(employeeId.hashCode()).nextDouble() - 0.5) * 4;
+    }
+
+    public static double longitude(String employeeId) {
+        return HQ_LON + (new SplittableRandom(~employeeId.hashCode()).nextDouble() - 0.5) * 6;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.ovintocrew.benchmark;
+
+import com.example.ovintocrew.Util.DistanceUtil;
+import com.example.ovintocrew.client.AdaptiveConcurrencyLimiter;
+import com.example.ovintocrew.client.CircuitBreaker;
+import com.example.ovintocrew.client.GoogleDistanceClient;
+import com.example.ovintocrew.metrics.ProximityMetrics;
+import com.example.ovintocrew.model.dto.Coordinates;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Distance Matrix stand-in: one simulated round-trip per call, road distance modelled as 1.3x great-circle,
+ * and per-element failures reported as NaN like the real client.
+ */
+public class StubGoogleDistanceClient extends GoogleDistanceClient {
+
+    private static final Executor RESPONDERS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final StubLatency latency;
+
+    public StubGoogleDistanceClient(double meanLatencyMillis, double errorRate) {
+        super("stub", "http://localhost/stub", 0, Duration.ofMinutes(1), 5, Duration.ofSeconds(10), HttpClient.newHttpClient(),
+                new AdaptiveConcurrencyLimiter("stub-google", 1, 1, 1, Duration.ofSeconds(1)),
+                new CircuitBreaker("stub-google", 10, 10, 1.0, Duration.ofSeconds(1), Duration.ofSeconds(1), 1),
+                new ProximityMetrics(new SimpleMeterRegistry()));
+        this.latency = new StubLatency(meanLatencyMillis, errorRate);
+    }
+
+    @Override
+    public CompletableFuture<double[]> getDistancesAsync(double originLat, double originLon, List<Coordinates> destinations) {
+        return CompletableFuture.supplyAsync(() -> getDistances(originLat, originLon, destinations), RESPONDERS);
+    }
+
+    @Override
+    public double[] getDistances(double originLat, double originLon, List<Coordinates> destinations) {
+        latency.pause();
+        double[] distances = new double[destinations.size()];
+        for (int i = 0; i < distances.length; i++) {
+            Coordinates destination = destinations.get(i);
+            distances[i] = latency.fails() ? Double.NaN : 1.3 * DistanceUtil.calculateDistance(
+                    originLat, originLon, destination.getLatitude(), destination.getLongitude());
+        }
+        return distances;
+    }
+}
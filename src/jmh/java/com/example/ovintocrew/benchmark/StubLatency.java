@@ -0,0 +1,25 @@
+package com.example.ovintocrew.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simulated upstream behaviour: exponentially distributed latency around a mean, and a failure probability.
+ */
+record StubLatency(double meanMillis, double errorRate) {
+
+    void pause() {
+        if (meanMillis <= 0) {
+            return;
+        }
+        double millis = -meanMillis * Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        try {
+            Thread.sleep((long) millis, (int) ((millis % 1) * 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean fails() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.ovintocrew.benchmark;
+
+import com.example.ovintocrew.client.AdaptiveConcurrencyLimiter;
+import com.example.ovintocrew.client.HedgePolicy;
+import com.example.ovintocrew.client.LocationClient;
+import com.example.ovintocrew.metrics.ProximityMetrics;
+import com.example.ovintocrew.model.dto.Coordinates;
+import com.example.ovintocrew.model.dto.LocationResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Location service stand-in that answers from {@link RosterGenerator} positions without any network I/O.
+ */
+public class StubLocationClient extends LocationClient {
+
+    private static final Executor RESPONDERS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final StubLatency latency;
+
+    public StubLocationClient(double meanLatencyMillis, double errorRate) {
+        super("http://localhost/stub/", 0, Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ofSeconds(5), false, "bulk", 1,
+                HttpClient.newHttpClient(),
+                new AdaptiveConcurrencyLimiter("stub-location", 1, 1, 1, Duration.ofSeconds(1)), HedgePolicy.disabled(),
+                new ProximityMetrics(new SimpleMeterRegistry()));
+        this.latency = new StubLatency(meanLatencyMillis, errorRate);
+    }
+
+    @Override
+    public LocationResponse getLocation(String employeeId) {
+        latency.pause();
+        if (latency.fails()) {
+            throw new IllegalStateException("Simulated location failure for employee " + employeeId);
+        }
+        return new LocationResponse(employeeId,
+                new Coordinates(RosterGenerator.latitude(employeeId), RosterGenerator.longitude(employeeId)));
+    }
+
+    @Override
+    public CompletableFuture<LocationResponse> getLocationAsync(String employeeId) {
+        return CompletableFuture.supplyAsync(() -> getLocation(employeeId), RESPONDERS);
+    }
+}
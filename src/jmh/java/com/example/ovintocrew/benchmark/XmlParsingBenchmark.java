@@ -0,0 +1,38 @@
+package com.example.ovintocrew.benchmark;
+
+import com.example.ovintocrew.model.dto.Employee;
+import com.example.ovintocrew.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing cost of {@link EmployeeService#parseEmployeesFromXml} per roster size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class XmlParsingBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int employees;
+
+    private byte[] xml;
+    private EmployeeService employeeService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        xml = RosterGenerator.xml(employees);
+        employeeService = BenchmarkServices.employeeService(new StubLocationClient(0, 0), null);
+    }
+
+    @Benchmark
+    public List<Employee> parseEmployeesFromXml() {
+        return employeeService.parseEmployeesFromXml(new ByteArrayInputStream(xml));
+    }
+}
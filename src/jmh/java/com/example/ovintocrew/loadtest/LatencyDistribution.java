@@ -0,0 +1,67 @@
+package com.example.ovintocrew.loadtest;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simulated upstream response time, parsed from a spec such as {@code fixed:5}, {@code uniform:2-20},
+ * {@code exp:10} (mean) or {@code lognormal:10,0.8} (median, sigma). All values are in milliseconds;
+ * {@code none} adds no delay.
+ */
+record LatencyDistribution(String spec, Kind kind, double first, double second) {
+
+    enum Kind { NONE, FIXED, UNIFORM, EXPONENTIAL, LOGNORMAL }
+
+    static LatencyDistribution parse(String spec) {
+        String normalized = spec.trim().toLowerCase(Locale.ROOT);
+        if (normalized.equals("none") || normalized.equals("0")) {
+            return new LatencyDistribution(normalized, Kind.NONE, 0, 0);
+        }
+        int colon = normalized.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Latency distribution must look like kind:parameters, got " + spec);
+        }
+        String parameters = normalized.substring(colon + 1);
+        return switch (normalized.substring(0, colon)) {
+            case "fixed" -> new LatencyDistribution(normalized, Kind.FIXED, Double.parseDouble(parameters), 0);
+            case "uniform" -> {
+                String[] bounds = parameters.split("-");
+                yield new LatencyDistribution(normalized, Kind.UNIFORM, Double.parseDouble(bounds[0]), Double.parseDouble(bounds[1]));
+            }
+            case "exp" -> new LatencyDistribution(normalized, Kind.EXPONENTIAL, Double.parseDouble(parameters), 0);
+            case "lognormal" -> {
+                String[] values = parameters.split(",");
+                yield new LatencyDistribution(normalized, Kind.LOGNORMAL, Double.parseDouble(values[0]), Double.parseDouble(values[1]));
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution " + spec);
+        };
+    }
+
+    double sampleMillis() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (kind) {
+            case NONE -> 0;
+            case FIXED -> first;
+            case UNIFORM -> first + random.nextDouble() * (second - first);
+            case EXPONENTIAL -> -first * Math.log(1 - random.nextDouble());
+            case LOGNORMAL -> first * Math.exp(second * random.nextGaussian());
+        };
+    }
+
+    void pause() {
+        double millis = sampleMillis();
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep((long) millis, (int) ((millis % 1) * 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.ovintocrew.loadtest;
+
+import com.example.ovintocrew.benchmark.RosterGenerator;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop driver: posts a freshly generated roster to the target at a fixed rate, whether or not earlier
+ * requests have answered, so a slow server shows up as latency instead of as a lower request rate. Each
+ * roster is a window of consecutive ids at a random offset in the id space.
+ */
+final class LoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final URI target;
+    private final double rps;
+    private final int employees;
+    private final int idSpace;
+
+    LoadGenerator(URI target, double rps, int employees, int idSpace) {
+        if (rps <= 0 || employees <= 0 || idSpace < employees) {
+            throw new IllegalArgumentException("rps and employees must be positive and id-space at least employees");
+        }
+        this.target = target;
+        this.rps = rps;
+        this.employees = employees;
+        this.idSpace = idSpace;
+    }
+
+    /**
+     * Sends requests for the given duration and returns once every one of them has answered or timed out.
+     */
+    Result run(Duration duration) throws InterruptedException {
+        Recorder recorder = new Recorder();
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rps);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long scheduled = start; scheduled < end; scheduled += interval) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long intended = scheduled;
+                senders.execute(() -> send(intended, recorder));
+            }
+        }
+        return recorder.result(System.nanoTime() - start);
+    }
+
+    private void send(long intended, Recorder recorder) {
+        byte[] roster = RosterGenerator.xml(employees, ThreadLocalRandom.current().nextInt(idSpace), idSpace);
+        HttpRequest request = HttpRequest.newBuilder(target)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/xml")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(roster))
+                .build();
+        String outcome;
+        try {
+            outcome = String.valueOf(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+        } catch (HttpTimeoutException e) {
+            outcome = "timeout";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "interrupted";
+        } catch (Exception e) {
+            outcome = "io-error";
+        }
+        recorder.record(outcome, System.nanoTime() - intended);
+    }
+
+    record Result(long sent, long succeeded, Map<String, Long> outcomes, long[] sortedLatencyNanos, long elapsedNanos) {
+
+        double percentileMillis(double quantile) {
+            if (sortedLatencyNanos.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * sortedLatencyNanos.length) - 1;
+            return sortedLatencyNanos[Math.max(rank, 0)] / 1e6;
+        }
+
+        double meanMillis() {
+            return Arrays.stream(sortedLatencyNanos).average().orElse(0) / 1e6;
+        }
+    }
+
+    private static final class Recorder {
+
+        private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        private long[] latencies = new long[1024];
+        private int count;
+
+        void record(String outcome, long latencyNanos) {
+            outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+            synchronized (this) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = latencyNanos;
+            }
+        }
+
+        synchronized Result result(long elapsedNanos) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            Map<String, Long> totals = new TreeMap<>();
+            outcomes.forEach((outcome, adder) -> totals.put(outcome, adder.sum()));
+            return new Result(count, totals.getOrDefault("200", 0L), totals, sorted, elapsedNanos);
+        }
+    }
+}
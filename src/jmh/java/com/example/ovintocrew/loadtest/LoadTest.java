@@ -0,0 +1,203 @@
+package com.example.ovintocrew.loadtest;
+
+import com.example.ovintocrew.OvintocrewApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offline end-to-end load test: starts {@link StubUpstreams} for the location service and the Distance Matrix
+ * API, starts the application against them on a random port, drives {@code /api/employees/process} with
+ * generated rosters at the target rate and writes a {@link LoadTestReport}. The application runs in this JVM,
+ * so its meters and heap are read directly.
+ * <p>
+ * Options are {@code --name=value}: {@code rps}, {@code duration} and {@code warmup} (seconds),
+ * {@code employees} (per roster), {@code id-space}, {@code location-latency}, {@code location-error-rate},
+ * {@code location-rate-limit} and their {@code google-} counterparts, {@code report} (output file) and the
+ * thresholds {@code max-p99-ms}, {@code max-error-rate} and {@code max-fallback-rate}. Dotted names such as
+ * {@code --employee.prefilter.enabled=true} are passed to the application as properties.
+ */
+public final class LoadTest {
+
+    private static final Set<String> OPTIONS = Set.of("rps", "duration", "warmup", "employees", "id-space",
+            "location-latency", "location-error-rate", "location-rate-limit",
+            "google-latency", "google-error-rate", "google-rate-limit",
+            "report", "max-p99-ms", "max-error-rate", "max-fallback-rate");
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--google.client.api-key=load-test",
+                "--employee.store.directory=",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=ERROR",
+                "--logging.level.com.example.ovintocrew=OFF"));
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, equals);
+            if (name.contains(".")) {
+                applicationArgs.add(arg);
+            } else if (OPTIONS.contains(name)) {
+                options.put(name, arg.substring(equals + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown option --" + name + ", expected one of " + OPTIONS);
+            }
+        }
+
+        double rps = Double.parseDouble(options.getOrDefault("rps", "5"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "30"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup", "10"));
+        int employees = Integer.parseInt(options.getOrDefault("employees", "200"));
+        int idSpace = Integer.parseInt(options.getOrDefault("id-space", "20000"));
+        StubBehaviour location = stub(options, "location", "exp:20", "0.01");
+        StubBehaviour google = stub(options, "google", "lognormal:40,0.5", "0.02");
+        Path reportFile = Path.of(options.getOrDefault("report", "target/load-test-report.json"));
+
+        LoadTestReport report;
+        try (StubUpstreams stubs = new StubUpstreams(location, google)) {
+            applicationArgs.add("--location.client.base-url=" + stubs.locationBaseUrl());
+            applicationArgs.add("--google.client.base-url=" + stubs.googleBaseUrl());
+            try (ConfigurableApplicationContext application =
+                         SpringApplication.run(OvintocrewApplication.class, applicationArgs.toArray(String[]::new))) {
+                int port = application.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                LoadGenerator generator = new LoadGenerator(
+                        URI.create("http://localhost:" + port + "/api/employees/process"), rps, employees, idSpace);
+                MeterRegistry registry = application.getBean(MeterRegistry.class);
+
+                if (warmupSeconds > 0) {
+                    generator.run(Duration.ofSeconds(warmupSeconds));
+                }
+                location.resetCounters();
+                google.resetCounters();
+                Counters before = Counters.read(registry);
+                long gcCountBefore = gcCount();
+                long gcTimeBefore = gcTimeMillis();
+                ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+
+                LoadGenerator.Result result = generator.run(Duration.ofSeconds(durationSeconds));
+
+                Counters after = Counters.read(registry);
+                report = report(new LoadTestReport.Config(rps, durationSeconds, warmupSeconds, employees, idSpace),
+                        result, employees, after.minus(before), Map.of("location", location.report(), "google", google.report()),
+                        heap(gcCount() - gcCountBefore, gcTimeMillis() - gcTimeBefore), options);
+            }
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        if (reportFile.getParent() != null) {
+            Files.createDirectories(reportFile.getParent());
+        }
+        objectMapper.writeValue(reportFile.toFile(), report);
+        System.out.println(objectMapper.writeValueAsString(report));
+        System.exit(report.passed() ? 0 : 1);
+    }
+
+    private static StubBehaviour stub(Map<String, String> options, String upstream, String latency, String errorRate) {
+        return new StubBehaviour(
+                LatencyDistribution.parse(options.getOrDefault(upstream + "-latency", latency)),
+                Double.parseDouble(options.getOrDefault(upstream + "-error-rate", errorRate)),
+                Double.parseDouble(options.getOrDefault(upstream + "-rate-limit", "0")));
+    }
+
+    private static LoadTestReport report(LoadTestReport.Config config, LoadGenerator.Result result, int employees,
+                                         Counters counters, Map<String, LoadTestReport.Upstream> upstreams,
+                                         LoadTestReport.Heap heap, Map<String, String> options) {
+        double seconds = result.elapsedNanos() / 1e9;
+        long processed = result.succeeded() * employees;
+        double fallbackRate = processed == 0 ? 0 : (double) counters.fallbacks() / processed;
+        double errorRate = result.sent() == 0 ? 0 : (double) (result.sent() - result.succeeded()) / result.sent();
+        double p99 = result.percentileMillis(0.99);
+
+        List<String> violations = new ArrayList<>();
+        if (options.containsKey("max-p99-ms") && p99 > Double.parseDouble(options.get("max-p99-ms"))) {
+            violations.add(String.format(Locale.ROOT, "p99 %.1f ms exceeds %s ms", p99, options.get("max-p99-ms")));
+        }
+        if (options.containsKey("max-error-rate") && errorRate > Double.parseDouble(options.get("max-error-rate"))) {
+            violations.add(String.format(Locale.ROOT, "error rate %.4f exceeds %s", errorRate, options.get("max-error-rate")));
+        }
+        if (options.containsKey("max-fallback-rate") && fallbackRate > Double.parseDouble(options.get("max-fallback-rate"))) {
+            violations.add(String.format(Locale.ROOT, "fallback rate %.4f exceeds %s", fallbackRate, options.get("max-fallback-rate")));
+        }
+
+        return new LoadTestReport(
+                config,
+                new LoadTestReport.Requests(result.sent(), result.succeeded(), result.sent() - result.succeeded(), result.outcomes()),
+                new LoadTestReport.Throughput(result.succeeded() / seconds, processed / seconds),
+                new LoadTestReport.Latency(result.percentileMillis(0.50), p99, result.percentileMillis(0.999),
+                        result.percentileMillis(1.0), result.meanMillis()),
+                new LoadTestReport.Fallback(processed, counters.fallbacks(), counters.locationFailures(),
+                        counters.distanceSkipped(), fallbackRate),
+                upstreams,
+                heap,
+                violations,
+                violations.isEmpty());
+    }
+
+    private static LoadTestReport.Heap heap(long gcCount, long gcTimeMillis) {
+        MemoryUsage usage = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long peak = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+        return new LoadTestReport.Heap(megabytes(usage.getUsed()), megabytes(usage.getCommitted()),
+                megabytes(usage.getMax()), megabytes(peak), gcCount, gcTimeMillis);
+    }
+
+    private static double megabytes(long bytes) {
+        return Math.round(bytes / 1024.0 / 1024.0 * 10) / 10.0;
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcTimeMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private record Counters(long fallbacks, long locationFailures, long distanceSkipped) {
+
+        static Counters read(MeterRegistry registry) {
+            return new Counters(
+                    count(registry, "ovintocrew.distance.fallback"),
+                    count(registry, "ovintocrew.employee.location.failures"),
+                    count(registry, "ovintocrew.distance.skipped"));
+        }
+
+        private static long count(MeterRegistry registry, String name) {
+            return (long) registry.get(name).counter().count();
+        }
+
+        Counters minus(Counters other) {
+            return new Counters(fallbacks - other.fallbacks, locationFailures - other.locationFailures,
+                    distanceSkipped - other.distanceSkipped);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ovintocrew.loadtest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine-readable outcome of one {@link LoadTest} run, written as JSON. Latencies are in milliseconds and
+ * measured from the moment each request was scheduled. {@code violations} lists every threshold that was
+ * exceeded; the run fails when it is not empty.
+ */
+record LoadTestReport(
+        Config config,
+        Requests requests,
+        Throughput throughput,
+        Latency latencyMs,
+        Fallback fallback,
+        Map<String, Upstream> upstreams,
+        Heap heap,
+        List<String> violations,
+        boolean passed) {
+
+    record Config(double targetRps, long durationSeconds, long warmupSeconds, int employeesPerRoster, int idSpace) {}
+
+    record Requests(long sent, long succeeded, long failed, Map<String, Long> statusCodes) {}
+
+    record Throughput(double requestsPerSecond, double employeesPerSecond) {}
+
+    record Latency(double p50, double p99, double p999, double max, double mean) {}
+
+    record Fallback(long employees, long haversineFallbacks, long locationFailures, long distanceSkipped,
+                    double fallbackRate) {}
+
+    record Upstream(String latency, double errorRate, double rateLimit, long requests, long rateLimited, long failed) {}
+
+    record Heap(double usedMb, double committedMb, double maxMb, double peakUsedMb, long gcCount, long gcTimeMs) {}
+}
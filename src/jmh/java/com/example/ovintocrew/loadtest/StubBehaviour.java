@@ -0,0 +1,72 @@
+package com.example.ovintocrew.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How one stub upstream answers: a token-bucket rate limit (HTTP 429 once exceeded, answered at once), a
+ * latency distribution, and a probability of failing with HTTP 503 after the delay.
+ */
+final class StubBehaviour {
+
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final double rateLimit;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    /**
+     * @param rateLimit requests per second the upstream admits, bursts of up to one second included; 0 admits all
+     */
+    StubBehaviour(LatencyDistribution latency, double errorRate, double rateLimit) {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.rateLimit = rateLimit;
+        this.tokens = rateLimit;
+    }
+
+    /**
+     * Applies the simulated behaviour to one request and returns the status to answer with.
+     */
+    int respond() {
+        requests.increment();
+        if (!admit()) {
+            rateLimited.increment();
+            return 429;
+        }
+        latency.pause();
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            failed.increment();
+            return 503;
+        }
+        return 200;
+    }
+
+    private synchronized boolean admit() {
+        if (rateLimit <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        tokens = Math.min(rateLimit, tokens + (now - refilledAt) / 1e9 * rateLimit);
+        refilledAt = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    void resetCounters() {
+        requests.reset();
+        rateLimited.reset();
+        failed.reset();
+    }
+
+    LoadTestReport.Upstream report() {
+        return new LoadTestReport.Upstream(latency.toString(), errorRate, rateLimit,
+                requests.sum(), rateLimited.sum(), failed.sum());
+    }
+}
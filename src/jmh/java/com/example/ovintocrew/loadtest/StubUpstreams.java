@@ -0,0 +1,152 @@
+package com.example.ovintocrew.loadtest;
+
+import com.example.ovintocrew.Util.DistanceUtil;
+import com.example.ovintocrew.benchmark.RosterGenerator;
+import com.example.ovintocrew.model.dto.Coordinates;
+import com.example.ovintocrew.model.dto.LocationResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP stand-ins for the location service (per-id {@code GET} and bulk {@code POST}) and the Distance
+ * Matrix API, speaking the same wire format as the real upstreams. Locations come from
+ * {@link RosterGenerator}; road distance is modelled as 1.3x great-circle.
+ */
+final class StubUpstreams implements AutoCloseable {
+
+    private static final double ROAD_FACTOR = 1.3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpServer server;
+    private final StubBehaviour location;
+    private final StubBehaviour google;
+
+    StubUpstreams(StubBehaviour location, StubBehaviour google) throws IOException {
+        this.location = location;
+        this.google = google;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.createContext("/location/", this::handleLocation);
+        server.createContext("/google", this::handleGoogle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String locationBaseUrl() {
+        return baseUrl() + "/location/";
+    }
+
+    String googleBaseUrl() {
+        return baseUrl() + "/google";
+    }
+
+    private String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    private void handleLocation(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            String id = exchange.getRequestURI().getPath().substring("/location/".length());
+            boolean bulk = "POST".equals(exchange.getRequestMethod()) && id.equals("bulk");
+            String[] ids = bulk ? objectMapper.readValue(body, String[].class) : null;
+            int status = location.respond();
+            if (status != 200) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            Object response;
+            if (bulk) {
+                List<LocationResponse> locations = new ArrayList<>(ids.length);
+                for (String employeeId : ids) {
+                    locations.add(locate(employeeId));
+                }
+                response = locations;
+            } else {
+                response = locate(id);
+            }
+            send(exchange, objectMapper.writeValueAsBytes(response));
+        }
+    }
+
+    private static LocationResponse locate(String employeeId) {
+        return new LocationResponse(employeeId,
+                new Coordinates(RosterGenerator.latitude(employeeId), RosterGenerator.longitude(employeeId)));
+    }
+
+    private void handleGoogle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            double[][] origins = null;
+            double[][] destinations = null;
+            for (String parameter : exchange.getRequestURI().getRawQuery().split("&")) {
+                int equals = parameter.indexOf('=');
+                String name = parameter.substring(0, equals);
+                String value = URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+                switch (name) {
+                    case "origins" -> origins = latLons(value);
+                    case "destinations" -> destinations = latLons(value);
+                    default -> { }
+                }
+            }
+            if (origins == null || destinations == null) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            int status = google.respond();
+            if (status != 200) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+
+            StringBuilder json = new StringBuilder(64 + origins.length * destinations.length * 48)
+                    .append("{\"status\":\"OK\",\"rows\":[");
+            for (int o = 0; o < origins.length; o++) {
+                json.append(o == 0 ? "" : ",").append("{\"elements\":[");
+                for (int d = 0; d < destinations.length; d++) {
+                    long meters = Math.round(ROAD_FACTOR * 1000 * DistanceUtil.calculateDistance(
+                            origins[o][0], origins[o][1], destinations[d][0], destinations[d][1]));
+                    json.append(d == 0 ? "" : ",")
+                            .append("{\"status\":\"OK\",\"distance\":{\"value\":").append(meters).append("}}");
+                }
+                json.append("]}");
+            }
+            send(exchange, json.append("]}").toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static double[][] latLons(String value) {
+        String[] points = value.split("\\|");
+        double[][] latLons = new double[points.length][];
+        for (int i = 0; i < points.length; i++) {
+            String[] latLon = points[i].split(",");
+            latLons[i] = new double[]{Double.parseDouble(latLon[0]), Double.parseDouble(latLon[1])};
+        }
+        return latLons;
+    }
+
+    private static void send(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.benchmark.RosterGenerator;
+import com.example.ovintocrew.model.dto.AggregationOptions;
+import com.example.ovintocrew.model.dto.Employee;
+import com.example.ovintocrew.model.dto.EmployeeProximityResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregation alone: already-resolved employees completing concurrently on virtual threads, as they do at
+ * the end of each lookup in the fan-out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ProximityAggregatorBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int employees;
+
+    @Param({"0", "10"})
+    public int topK;
+
+    private List<Employee> resolved;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        resolved = RosterGenerator.employees(employees).stream()
+                .map(employee -> Employee.builder()
+                        .id(employee.id())
+                        .firstName(employee.firstName())
+                        .distanceFromHQ(random.nextDouble(0, 300))
+                        .build())
+                .toList();
+    }
+
+    @Benchmark
+    public EmployeeProximityResponse aggregate() {
+        AggregationOptions options = new AggregationOptions(topK, topK > 0 ? 10.0 : null, false);
+        ProximityAggregator aggregator = new ProximityAggregator(30.0, options, true);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Employee employee : resolved) {
+                executor.execute(() -> aggregator.add(employee));
+            }
+        }
+        return aggregator.toResponse();
+    }
+}
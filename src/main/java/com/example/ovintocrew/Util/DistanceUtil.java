@@ -1,19 +1,58 @@
 package com.example.ovintocrew.Util;
 
-import java.text.DecimalFormat;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 public class DistanceUtil {
     private static final double EARTH_RADIUS = 6371.0;
-    static DecimalFormat distanceFormatter = new DecimalFormat("#.0");
+    /**
+     * Distance of {@code distance * 10} from a .5 tie below which the product may have been rounded onto or
+     * across the tie; far above the error of one multiplication for any real distance.
+     */
+    private static final double TIE_MARGIN = 1e-6;
 
     public static double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        double lat1Rad = Math.toRadians(lat1);
+        return round(haversine(lat1Rad, Math.toRadians(lon1), Math.cos(lat1Rad), lat2, lon2));
+    }
+
+    /**
+     * Fills {@code distances[i]} with the Haversine distance in km from the origin to
+     * ({@code lats[i]}, {@code lons[i]}), rounded like {@link #calculateDistance}. The origin terms are computed
+     * once and the loop allocates nothing; the multi-origin queries run it over the located employees'
+     * coordinates once per origin. NaN coordinates yield NaN.
+     */
+    public static void calculateDistances(double originLat, double originLon, double[] lats, double[] lons, double[] distances) {
+        if (lats.length != lons.length || distances.length < lats.length) {
+            throw new IllegalArgumentException("Coordinate and result arrays must have matching lengths");
+        }
+        double originLatRad = Math.toRadians(originLat);
+        double originLonRad = Math.toRadians(originLon);
+        double cosOriginLat = Math.cos(originLatRad);
+        for (int i = 0; i < lats.length; i++) {
+            distances[i] = round(haversine(originLatRad, originLonRad, cosOriginLat, lats[i], lons[i]));
+        }
+    }
+
+    private static double haversine(double originLatRad, double originLonRad, double cosOriginLat, double lat, double lon) {
+        double latRad = Math.toRadians(lat);
+        double sinHalfDLat = Math.sin((latRad - originLatRad) / 2);
+        double sinHalfDLon = Math.sin((Math.toRadians(lon) - originLonRad) / 2);
+        double a = sinHalfDLat * sinHalfDLat + cosOriginLat * Math.cos(latRad) * sinHalfDLon * sinHalfDLon;
         double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        double distance = EARTH_RADIUS * c;
-        return Double.parseDouble(distanceFormatter.format(distance));
+        return EARTH_RADIUS * c;
+    }
+
+    /**
+     * Rounds a distance to one decimal, half to even on its exact binary value, as {@code DecimalFormat} does:
+     * 0.05 is stored slightly above the tie and rounds to 0.1, 0.15 slightly below it and rounds to 0.1.
+     * Only values within {@link #TIE_MARGIN} of a tie take the exact {@link BigDecimal} path.
+     */
+    public static double round(double distance) {
+        double scaled = distance * 10;
+        if (!(Math.abs(scaled - Math.floor(scaled) - 0.5) < TIE_MARGIN)) {
+            return Math.rint(scaled) / 10;
+        }
+        return new BigDecimal(distance).setScale(1, RoundingMode.HALF_EVEN).doubleValue();
     }
 }
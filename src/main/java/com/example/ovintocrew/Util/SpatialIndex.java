@@ -0,0 +1,158 @@
+package com.example.ovintocrew.Util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * Immutable k-d tree over points on the earth's surface. Points are stored as 3D unit vectors, where the
+ * straight-line (chord) distance grows monotonically with the great-circle distance, so radius and k-nearest
+ * queries prune exactly without any special casing of poles or the antimeridian.
+ */
+public final class SpatialIndex<T> {
+
+    private static final double EARTH_RADIUS = 6371.0;
+
+    private final List<T> items;
+    private final double[][] points;
+    private final double[] lats;
+    private final double[] lons;
+
+    private SpatialIndex(List<T> items, double[] lats, double[] lons) {
+        int size = items.size();
+        Integer[] order = new Integer[size];
+        Arrays.setAll(order, i -> i);
+        double[][] vectors = new double[size][];
+        for (int i = 0; i < size; i++) {
+            vectors[i] = toVector(lats[i], lons[i]);
+        }
+        build(order, vectors, 0, size, 0);
+
+        this.items = new ArrayList<>(size);
+        this.points = new double[size][];
+        this.lats = new double[size];
+        this.lons = new double[size];
+        for (int i = 0; i < size; i++) {
+            this.items.add(items.get(order[i]));
+            this.points[i] = vectors[order[i]];
+            this.lats[i] = lats[order[i]];
+            this.lons[i] = lons[order[i]];
+        }
+    }
+
+    public static <T> SpatialIndex<T> of(List<T> items, Function<T, Double> latitude, Function<T, Double> longitude) {
+        double[] lats = new double[items.size()];
+        double[] lons = new double[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            lats[i] = latitude.apply(items.get(i));
+            lons[i] = longitude.apply(items.get(i));
+        }
+        return new SpatialIndex<>(items, lats, lons);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Returns every item within {@code radiusKm} great-circle distance, nearest first.
+     */
+    public List<Neighbor<T>> withinRadius(double lat, double lon, double radiusKm) {
+        double[] target = toVector(lat, lon);
+        double chord = radiusKm >= Math.PI * EARTH_RADIUS ? 2.0 : 2 * Math.sin(radiusKm / (2 * EARTH_RADIUS));
+        List<Integer> matches = new ArrayList<>();
+        collectWithin(target, chord * chord, 0, items.size(), 0, matches);
+        return matches.stream()
+                .map(i -> neighbor(i, lat, lon))
+                .sorted(Comparator.comparingDouble(Neighbor::distanceKm))
+                .toList();
+    }
+
+    /**
+     * Returns the {@code k} items closest to the given point, nearest first.
+     */
+    public List<Neighbor<T>> nearest(double lat, double lon, int k) {
+        if (k <= 0 || items.isEmpty()) {
+            return List.of();
+        }
+        double[] target = toVector(lat, lon);
+        PriorityQueue<double[]> best = new PriorityQueue<>(Comparator.comparingDouble((double[] e) -> e[1]).reversed());
+        collectNearest(target, k, 0, items.size(), 0, best);
+        return best.stream()
+                .map(entry -> neighbor((int) entry[0], lat, lon))
+                .sorted(Comparator.comparingDouble(Neighbor::distanceKm))
+                .toList();
+    }
+
+    private Neighbor<T> neighbor(int index, double lat, double lon) {
+        return new Neighbor<>(items.get(index), DistanceUtil.calculateDistance(lat, lon, lats[index], lons[index]));
+    }
+
+    private void collectWithin(double[] target, double maxSquared, int from, int to, int axis, List<Integer> matches) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        if (squaredDistance(points[mid], target) <= maxSquared) {
+            matches.add(mid);
+        }
+        double delta = target[axis] - points[mid][axis];
+        int next = (axis + 1) % 3;
+        if (delta <= 0 || delta * delta <= maxSquared) {
+            collectWithin(target, maxSquared, from, mid, next, matches);
+        }
+        if (delta >= 0 || delta * delta <= maxSquared) {
+            collectWithin(target, maxSquared, mid + 1, to, next, matches);
+        }
+    }
+
+    private void collectNearest(double[] target, int k, int from, int to, int axis, PriorityQueue<double[]> best) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        double squared = squaredDistance(points[mid], target);
+        if (best.size() < k) {
+            best.offer(new double[]{mid, squared});
+        } else if (squared < best.peek()[1]) {
+            best.poll();
+            best.offer(new double[]{mid, squared});
+        }
+        double delta = target[axis] - points[mid][axis];
+        int next = (axis + 1) % 3;
+        boolean leftFirst = delta <= 0;
+        collectNearest(target, k, leftFirst ? from : mid + 1, leftFirst ? mid : to, next, best);
+        if (best.size() < k || delta * delta < best.peek()[1]) {
+            collectNearest(target, k, leftFirst ? mid + 1 : from, leftFirst ? to : mid, next, best);
+        }
+    }
+
+    private static void build(Integer[] order, double[][] vectors, int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        Arrays.sort(order, from, to, Comparator.comparingDouble(i -> vectors[i][axis]));
+        int mid = (from + to) >>> 1;
+        build(order, vectors, from, mid, (axis + 1) % 3);
+        build(order, vectors, mid + 1, to, (axis + 1) % 3);
+    }
+
+    private static double[] toVector(double lat, double lon) {
+        double phi = Math.toRadians(lat);
+        double lambda = Math.toRadians(lon);
+        double cosPhi = Math.cos(phi);
+        return new double[]{cosPhi * Math.cos(lambda), cosPhi * Math.sin(lambda), Math.sin(phi)};
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    public record Neighbor<T>(T item, double distanceKm) {}
+}
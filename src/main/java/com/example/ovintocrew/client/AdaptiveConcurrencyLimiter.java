@@ -0,0 +1,260 @@
+package com.example.ovintocrew.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of in-flight calls to one upstream with an AIMD limit: every call that completes quickly
+ * and successfully grows the limit by {@code 1 / limit} (about one slot per round of calls), while an error or
+ * a call slower than the latency threshold multiplies it by the backoff ratio. Callers over the limit wait in
+ * FIFO order: blocking callers park (cheap on virtual threads), asynchronous callers get their call started
+ * by whichever completion frees the slot.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits for " + name + ": min " + minLimit + ", max " + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Runs the call once a slot is free and feeds its latency and outcome back into the limit.
+     */
+    public <T> T execute(Callable<T> call) throws Exception {
+        acquire();
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = call.call();
+            success = true;
+            return result;
+        } finally {
+            release(System.nanoTime() - start, success);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #execute}: the call is started once a slot is free, and the slot is held
+     * until the future it returns completes. Cancelling the returned future drops a call that is still queued,
+     * or cancels the running call's future, and gives the slot back without counting against the limit.
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<Void> permit = acquireAsync();
+        CompletableFuture<T> outcome = new CompletableFuture<>();
+        outcome.whenComplete((value, error) -> {
+            if (outcome.isCancelled() && permit.cancel(false)) {
+                forget(permit);
+            }
+        });
+        permit.thenRun(() -> {
+            if (outcome.isDone()) {
+                returnSlot();
+                return;
+            }
+            long start = System.nanoTime();
+            CompletableFuture<T> result;
+            try {
+                result = call.get();
+            } catch (RuntimeException e) {
+                release(System.nanoTime() - start, false);
+                outcome.completeExceptionally(e);
+                return;
+            }
+            result.whenComplete((value, error) -> {
+                if (outcome.isCancelled()) {
+                    returnSlot();
+                    return;
+                }
+                release(System.nanoTime() - start, error == null);
+                if (error == null) {
+                    outcome.complete(value);
+                } else {
+                    outcome.completeExceptionally(error);
+                }
+            });
+            outcome.whenComplete((value, error) -> {
+                if (outcome.isCancelled()) {
+                    result.cancel(true);
+                }
+            });
+        });
+        return outcome;
+    }
+
+    private void acquire() throws InterruptedException {
+        CompletableFuture<Void> permit = acquireAsync();
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            if (permit.cancel(false)) {
+                forget(permit);
+            } else {
+                returnSlot();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Permit future never fails", e);
+        }
+    }
+
+    private void forget(CompletableFuture<Void> permit) {
+        lock.lock();
+        try {
+            waiters.remove(permit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a slot right away when one is free and nobody is queued, otherwise queues in FIFO order.
+     */
+    private CompletableFuture<Void> acquireAsync() {
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> permit = new CompletableFuture<>();
+            waiters.add(permit);
+            return permit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long latencyNanos, boolean success) {
+        List<CompletableFuture<Void>> granted;
+        lock.lock();
+        try {
+            inFlight--;
+            if (!success || latencyNanos > latencyThresholdNanos) {
+                double previous = limit;
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                if ((int) previous != (int) limit) {
+                    log.debug("Reduced {} concurrency limit to {}", name, (int) limit);
+                }
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            granted = grantWaiters();
+        } finally {
+            lock.unlock();
+        }
+        handOver(granted);
+    }
+
+    /**
+     * Gives back a slot that was granted but never used, without touching the limit.
+     */
+    private void returnSlot() {
+        List<CompletableFuture<Void>> granted;
+        lock.lock();
+        try {
+            inFlight--;
+            granted = grantWaiters();
+        } finally {
+            lock.unlock();
+        }
+        handOver(granted);
+    }
+
+    /**
+     * Completes granted permits outside the lock, since completing one starts the waiter's call on this thread.
+     */
+    private void handOver(List<CompletableFuture<Void>> granted) {
+        for (CompletableFuture<Void> permit : granted) {
+            if (!permit.complete(null)) {
+                returnSlot();
+            }
+        }
+    }
+
+    private List<CompletableFuture<Void>> grantWaiters() {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        while (inFlight < (int) limit && !waiters.isEmpty()) {
+            CompletableFuture<Void> permit = waiters.poll();
+            if (!permit.isDone()) {
+                inFlight++;
+                granted.add(permit);
+            }
+        }
+        return granted;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ovintocrew.client.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on in-flight requests")
+                .tag("client", name)
+                .register(registry);
+        Gauge.builder("ovintocrew.client.concurrency.in-flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently in flight")
+                .tag("client", name)
+                .register(registry);
+        Gauge.builder("ovintocrew.client.concurrency.queue", this, AdaptiveConcurrencyLimiter::getQueueDepth)
+                .description("Requests waiting for a free slot")
+                .tag("client", name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.ovintocrew.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The {@code sendAsync} pipeline shared by the upstream clients: the body is handed over as an
+ * {@link InputStream} and parsed on a virtual thread while it arrives, and the whole exchange, body included,
+ * fails with a {@link java.util.concurrent.TimeoutException} once the timeout elapses, which also releases a
+ * reader still blocked on the body.
+ */
+final class AsyncHttp {
+
+    /**
+     * Parsing reads the body stream and blocks, so it must stay off the HttpClient's own threads.
+     */
+    private static final Executor BODY_READERS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private AsyncHttp() {
+    }
+
+    @FunctionalInterface
+    interface BodyReader<T> {
+        T read(int statusCode, InputStream body) throws IOException;
+    }
+
+    static <T> CompletableFuture<T> send(HttpClient httpClient, HttpRequest request, Duration timeout, BodyReader<T> reader) {
+        CompletableFuture<HttpResponse<InputStream>> exchange =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        AtomicReference<Thread> bodyReader = new AtomicReference<>();
+        CompletableFuture<T> result = exchange
+                .thenApplyAsync(response -> {
+                    bodyReader.set(Thread.currentThread());
+                    try (InputStream body = response.body()) {
+                        return reader.read(response.statusCode(), body);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        bodyReader.set(null);
+                    }
+                }, BODY_READERS)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                exchange.cancel(true);
+                release(exchange, bodyReader);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Frees a reader that is still blocked on the body of a failed exchange: closing the stream cancels the
+     * body subscription, and the interrupt wakes a read that is waiting for the next buffer.
+     */
+    private static void release(CompletableFuture<HttpResponse<InputStream>> exchange, AtomicReference<Thread> bodyReader) {
+        if (exchange.isDone() && !exchange.isCompletedExceptionally()) {
+            try {
+                exchange.join().body().close();
+            } catch (IOException ignored) {
+                // the exchange has already failed
+            }
+        }
+        Thread thread = bodyReader.get();
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Strips the {@link CompletionException} and {@link ExecutionException} layers added by future composition.
+     */
+    static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * Waits for the future and rethrows its original failure, for the blocking variants of the client methods.
+     */
+    static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.ovintocrew.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Count-based circuit breaker for one upstream. A call counts as failed when it errors or is slower than the
+ * slow-call threshold; once the failure rate over the last {@code windowSize} calls reaches the threshold the
+ * circuit opens and calls are rejected without touching the network. After the open duration a few probe
+ * calls are let through: if they all succeed the circuit closes, any failure opens it again.
+ */
+@Slf4j
+public class CircuitBreaker implements MeterBinder {
+
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final boolean[] window;
+    private int next;
+    private int recorded;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+    private long rejected;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          Duration slowCallThreshold, Duration openDuration, int halfOpenProbes) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize || halfOpenProbes < 1
+                || failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings for " + name);
+        }
+        this.name = name;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    /**
+     * Returns whether a call may go out now. Every permitted call must report back through {@link #onResult},
+     * or through {@link #release} if it never went out.
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                probesStarted = 0;
+                probesSucceeded = 0;
+                log.info("Circuit for {} is half-open, probing with {} calls", name, halfOpenProbes);
+            }
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.HALF_OPEN && probesStarted < halfOpenProbes) {
+                probesStarted++;
+                return true;
+            }
+            rejected++;
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back a permitted call that will never report a result, because it was cancelled or dropped before
+     * it went out, so a half-open probe slot is not lost.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+                probesStarted--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onResult(long latencyNanos, boolean success) {
+        boolean failure = !success || latencyNanos > slowCallNanos;
+        lock.lock();
+        try {
+            switch (state) {
+                case HALF_OPEN -> {
+                    if (failure) {
+                        log.warn("Circuit for {} opened again: a probe call failed or was slow", name);
+                        open();
+                    } else if (++probesSucceeded >= halfOpenProbes) {
+                        state = State.CLOSED;
+                        resetWindow();
+                        log.info("Circuit for {} closed after successful probes", name);
+                    }
+                }
+                case CLOSED -> {
+                    if (recorded == window.length) {
+                        failures -= window[next] ? 1 : 0;
+                    } else {
+                        recorded++;
+                    }
+                    window[next] = failure;
+                    failures += failure ? 1 : 0;
+                    next = (next + 1) % window.length;
+                    if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+                        log.warn("Circuit for {} opened: {} of the last {} calls failed or were slow",
+                                name, failures, recorded);
+                        open();
+                    }
+                }
+                case OPEN -> {
+                    // late result of a call that started before the circuit opened
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejectedCount() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ovintocrew.client.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("Circuit state: 0 closed, 1 open, 2 half-open")
+                .tag("client", name)
+                .register(registry);
+        FunctionCounter.builder("ovintocrew.client.circuit.rejected", this, CircuitBreaker::getRejectedCount)
+                .description("Calls rejected while the circuit was open")
+                .tag("client", name)
+                .register(registry);
+    }
+}
@@ -1,60 +1,327 @@
 package com.example.ovintocrew.client;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.ovintocrew.metrics.ProximityMetrics;
+import com.example.ovintocrew.model.dto.Coordinates;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 
 
 @Component
 public class GoogleDistanceClient {
 
+    /**
+     * Maximum number of destinations the Distance Matrix API accepts in a single request.
+     */
+    public static final int MAX_DESTINATIONS_PER_REQUEST = 25;
+
+    /**
+     * Maximum number of origins, and of origin-destination elements, the Distance Matrix API accepts in a
+     * single request.
+     */
+    public static final int MAX_ORIGINS_PER_REQUEST = 25;
+    public static final int MAX_ELEMENTS_PER_REQUEST = 100;
+
     private final String apiKey;
     private final String baseUrl;
-    private static final HttpClient httpClient = HttpClient.newBuilder().build();
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    /**
+     * Road distances by origin and destination snapped to the configured grid, shared by every upload so
+     * unchanged and co-located employees do not cost another paid request.
+     */
+    private final Cache<DistanceKey, Double> cache;
+    private final double gridScale;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+    private final ProximityMetrics metrics;
+
     public GoogleDistanceClient(
             @Value("${google.client.api-key}") String apiKey,
-            @Value("${google.client.base-url}") String baseUrl) {
+            @Value("${google.client.base-url}") String baseUrl,
+            @Value("${google.client.cache.max-size:100000}") long cacheMaxSize,
+            @Value("${google.client.cache.ttl:P7D}") Duration cacheTtl,
+            @Value("${google.client.cache.precision:5}") int cachePrecision,
+            @Value("${google.client.request-timeout:PT10S}") Duration requestTimeout,
+            HttpClient httpClient,
+            @Qualifier("googleDistanceClientLimiter") AdaptiveConcurrencyLimiter limiter,
+            @Qualifier("googleDistanceCircuitBreaker") CircuitBreaker circuitBreaker,
+            ProximityMetrics metrics) {
         this.apiKey = apiKey;
+        this.requestTimeout = requestTimeout;
+        this.httpClient = httpClient;
+        this.limiter = limiter;
+        this.circuitBreaker = circuitBreaker;
+        this.metrics = metrics;
         this.baseUrl = baseUrl;
+        this.gridScale = Math.pow(10, cachePrecision);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        metrics.monitorCache("distances", cache);
     }
 
     public double getDistance(double originLat, double originLon, double destLat, double destLon) throws Exception {
-        String url = String.format("%s?origins=%f,%f&destinations=%f,%f&key=%s",
-                baseUrl, originLat, originLon, destLat, destLon, apiKey);
+        return AsyncHttp.await(getDistanceAsync(originLat, originLon, destLat, destLon));
+    }
+
+    /**
+     * Non-blocking variant of {@link #getDistance}; the future fails when Google cannot route the destination.
+     */
+    public CompletableFuture<Double> getDistanceAsync(double originLat, double originLon, double destLat, double destLon) {
+        return getDistancesAsync(originLat, originLon, List.of(new Coordinates(destLat, destLon)))
+                .thenApply(distances -> {
+                    if (Double.isNaN(distances[0])) {
+                        throw new IllegalStateException("Invalid response from Google Distance Matrix API");
+                    }
+                    return distances[0];
+                });
+    }
+
+    /**
+     * Returns the road distance in km from the origin to every destination, in the same order, splitting the
+     * destinations into as few Distance Matrix requests as possible. Elements Google could not route, and
+     * uncached elements while the circuit breaker is open, are {@link Double#NaN} so callers can fall back
+     * per destination.
+     */
+    public double[] getDistances(double originLat, double originLon, List<Coordinates> destinations) throws Exception {
+        return AsyncHttp.await(getDistancesAsync(originLat, originLon, destinations));
+    }
+
+    /**
+     * Non-blocking variant of {@link #getDistances}. The requests for the cache misses run concurrently and
+     * the future fails if any of them fails or times out.
+     */
+    public CompletableFuture<double[]> getDistancesAsync(double originLat, double originLon, List<Coordinates> destinations) {
+        return getDistanceMatrixAsync(List.of(new Coordinates(originLat, originLon)), destinations)
+                .thenApply(matrix -> matrix[0]);
+    }
+
+    /**
+     * Returns the road distance in km from every origin to every destination, indexed
+     * {@code [origin][destination]}, with as few Distance Matrix requests as the per-request limits allow.
+     * Unroutable and short-circuited elements are {@link Double#NaN}, as in {@link #getDistances}.
+     */
+    public CompletableFuture<double[][]> getDistanceMatrixAsync(List<Coordinates> origins, List<Coordinates> destinations) {
+        double[][] distances = new double[origins.size()][destinations.size()];
+        int originsPerRequest = Math.min(MAX_ORIGINS_PER_REQUEST, Math.max(1, origins.size()));
+        int destinationsPerRequest = Math.min(MAX_DESTINATIONS_PER_REQUEST, MAX_ELEMENTS_PER_REQUEST / originsPerRequest);
+        List<CompletableFuture<Void>> requests = new ArrayList<>();
+
+        for (int originFrom = 0; originFrom < origins.size(); originFrom += originsPerRequest) {
+            List<Coordinates> originChunk = origins.subList(originFrom, Math.min(originFrom + originsPerRequest, origins.size()));
+            int originOffset = originFrom;
+            List<Integer> missIndexes = new ArrayList<>();
+            for (int d = 0; d < destinations.size(); d++) {
+                boolean miss = false;
+                for (int o = 0; o < originChunk.size(); o++) {
+                    Double cached = cache.getIfPresent(distanceKey(originChunk.get(o), destinations.get(d)));
+                    if (cached != null) {
+                        distances[originOffset + o][d] = cached;
+                    } else {
+                        miss = true;
+                    }
+                }
+                if (miss) {
+                    missIndexes.add(d);
+                }
+            }
+
+            for (int from = 0; from < missIndexes.size(); from += destinationsPerRequest) {
+                List<Integer> indexes = missIndexes.subList(from, Math.min(from + destinationsPerRequest, missIndexes.size()));
+                List<Coordinates> chunk = indexes.stream().map(destinations::get).toList();
+                requests.add(requestDistances(originChunk, chunk).thenAccept(chunkDistances -> {
+                    for (int o = 0; o < originChunk.size(); o++) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            double distance = chunkDistances[o][i];
+                            distances[originOffset + o][indexes.get(i)] = distance;
+                            if (!Double.isNaN(distance)) {
+                                cache.put(distanceKey(originChunk.get(o), chunk.get(i)), distance);
+                            }
+                        }
+                    }
+                }));
+            }
+        }
+        return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).thenApply(ignored -> distances);
+    }
+
+    /**
+     * Hit, miss and eviction counters of the distance cache.
+     */
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    private DistanceKey distanceKey(Coordinates origin, Coordinates destination) {
+        return new DistanceKey(
+                Math.round(origin.getLatitude() * gridScale), Math.round(origin.getLongitude() * gridScale),
+                Math.round(destination.getLatitude() * gridScale), Math.round(destination.getLongitude() * gridScale));
+    }
+
+    private CompletableFuture<double[][]> requestDistances(List<Coordinates> origins, List<Coordinates> destinations) {
+        String url = String.format("%s?origins=%s&destinations=%s&key=%s",
+                baseUrl, formatLatLons(origins), formatLatLons(destinations), apiKey);
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
+                .timeout(requestTimeout)
                 .GET()
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() != 200) {
-            throw new Exception("Google API responded with status: " + response.statusCode());
+        if (!circuitBreaker.tryAcquire()) {
+            double[][] unresolved = new double[origins.size()][destinations.size()];
+            for (double[] row : unresolved) {
+                Arrays.fill(row, Double.NaN);
+            }
+            return CompletableFuture.completedFuture(unresolved);
         }
+        // exactly one of the response and the limited call's own completion reports back to the breaker, so a
+        // call the limiter cancels or drops before it goes out still gives its probe slot back
+        AtomicBoolean reported = new AtomicBoolean();
+        return limiter.executeAsync(() -> {
+            long start = System.nanoTime();
+            return AsyncHttp.send(httpClient, request, requestTimeout, (statusCode, body) -> {
+                        if (statusCode != 200) {
+                            throw new IllegalStateException("Google API responded with status: " + statusCode);
+                        }
+                        return readDistances(body, origins.size(), destinations.size());
+                    })
+                    .whenComplete((distances, error) -> {
+                        long latency = System.nanoTime() - start;
+                        metrics.recordClientRequest("google-distance", latency, error == null);
+                        if (reported.compareAndSet(false, true)) {
+                            circuitBreaker.onResult(latency, error == null);
+                        }
+                    });
+        }).whenComplete((distances, error) -> {
+            if (reported.compareAndSet(false, true)) {
+                circuitBreaker.release();
+            }
+        });
+    }
 
-        JsonNode root = objectMapper.readTree(response.body());
-        if (!"OK".equals(root.get("status").asText())) {
-            throw new Exception("Invalid response from Google Distance Matrix API");
+    /**
+     * Pulls the element distances of every row straight off the response stream, without building a tree of
+     * the whole document.
+     */
+    private static double[][] readDistances(InputStream body, int originCount, int destinationCount) throws IOException {
+        double[][] distances = new double[originCount][destinationCount];
+        for (double[] row : distances) {
+            Arrays.fill(row, Double.NaN);
         }
-        JsonNode rows = root.get("rows");
-        if (rows.isArray() && !rows.isEmpty()) {
-            JsonNode elements = rows.get(0).get("elements");
-            if (elements.isArray() && !elements.isEmpty()) {
-                JsonNode element = elements.get(0);
-                if ("OK".equals(element.get("status").asText())) {
-                    int distanceMeters = element.get("distance").get("value").asInt();
-                    return distanceMeters / 1000.0;
+        String status = null;
+        int rowCount = 0;
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("Invalid response from Google Distance Matrix API");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "status" -> status = parser.getText();
+                    case "rows" -> rowCount = readRows(parser, distances);
+                    default -> parser.skipChildren();
                 }
             }
         }
-        throw new Exception("Invalid response from Google Distance Matrix API");
+        if (!"OK".equals(status) || rowCount < originCount) {
+            throw new IllegalStateException("Invalid response from Google Distance Matrix API");
+        }
+        return distances;
+    }
+
+    private static int readRows(JsonParser parser, double[][] distances) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return 0;
+        }
+        int row = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (row < distances.length && parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if ("elements".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                        readElements(parser, distances[row]);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+            row++;
+        }
+        return row;
+    }
+
+    private static void readElements(JsonParser parser, double[] distances) throws IOException {
+        int index = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                index++;
+                continue;
+            }
+            String status = null;
+            int meters = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("status".equals(field)) {
+                    status = parser.getText();
+                } else if ("distance".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String distanceField = parser.currentName();
+                        parser.nextToken();
+                        if ("value".equals(distanceField)) {
+                            meters = parser.getValueAsInt();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (index < distances.length && "OK".equals(status)) {
+                distances[index] = meters / 1000.0;
+            }
+            index++;
+        }
     }
-}
 
+    private static String formatLatLons(List<Coordinates> points) {
+        return points.stream()
+                .map(point -> String.format(Locale.ROOT, "%f,%f", point.getLatitude(), point.getLongitude()))
+                .collect(Collectors.joining("%7C"));
+    }
 
+    private record DistanceKey(long originLat, long originLon, long destLat, long destLon) {}
+}
@@ -0,0 +1,120 @@
+package com.example.ovintocrew.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decides when a slow request deserves a second, hedged copy: once a call has been outstanding longer than
+ * the configured percentile of recent successful latencies (and at least the minimum delay), the same request
+ * is sent again and whichever answer arrives first wins. Until enough samples are collected nothing is hedged.
+ * Hedges are also capped by a budget: every request earns {@code budget} of a hedge, so at most that share of
+ * requests is ever duplicated, with a small burst allowance.
+ */
+public class HedgePolicy {
+
+    private static final int SAMPLES = 1024;
+    private static final int MIN_SAMPLES = 20;
+    private static final int RECOMPUTE_EVERY = 64;
+    private static final double MAX_HEDGE_TOKENS = 10;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final double budget;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] samples = new long[SAMPLES];
+    private int count;
+    private int next;
+    private int sinceRecompute;
+    private volatile long delayNanos = -1;
+    private double hedgeTokens;
+
+    private HedgePolicy(boolean enabled, double percentile, Duration minDelay, double budget) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.budget = budget;
+    }
+
+    public static HedgePolicy disabled() {
+        return new HedgePolicy(false, 1, Duration.ZERO, 0);
+    }
+
+    /**
+     * @param budget share of requests that may be hedged, e.g. 0.05 for at most one hedge per 20 requests
+     */
+    public static HedgePolicy atPercentile(double percentile, Duration minDelay, double budget) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("Hedge percentile must be between 0 and 1: " + percentile);
+        }
+        if (budget < 0 || budget > 1) {
+            throw new IllegalArgumentException("Hedge budget must be between 0 and 1: " + budget);
+        }
+        return new HedgePolicy(true, percentile, minDelay, budget);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Delay after which an outstanding call is hedged, or -1 when calls should not be hedged yet.
+     */
+    public long hedgeDelayNanos() {
+        return enabled ? delayNanos : -1;
+    }
+
+    /**
+     * Counts a request towards the hedge budget.
+     */
+    public void recordRequest() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + budget);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes one hedge out of the budget, or returns false when the budget is spent.
+     */
+    public boolean tryAcquireHedge() {
+        lock.lock();
+        try {
+            if (hedgeTokens < 1) {
+                return false;
+            }
+            hedgeTokens--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void recordLatency(long nanos) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            samples[next] = nanos;
+            next = (next + 1) % SAMPLES;
+            count = Math.min(count + 1, SAMPLES);
+            if (count >= MIN_SAMPLES && (++sinceRecompute >= RECOMPUTE_EVERY || delayNanos < 0)) {
+                sinceRecompute = 0;
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                long latency = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+                delayNanos = Math.max(minDelayNanos, latency);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
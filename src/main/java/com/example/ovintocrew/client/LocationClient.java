@@ -1,43 +1,304 @@
 package com.example.ovintocrew.client;
 
+import com.example.ovintocrew.metrics.ProximityMetrics;
 import com.example.ovintocrew.model.dto.LocationResponse;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 @Component
+@Slf4j
 public class LocationClient {
 
     private final String baseUrl;
-    private static final HttpClient httpClient = HttpClient.newBuilder().build();
+    private final Duration requestTimeout;
+    private final String bulkUrl;
+    private final int bulkChunkSize;
+    /**
+     * Cleared the first time the bulk endpoint answers as if it did not exist, after which every lookup goes
+     * through the per-id endpoint.
+     */
+    private final AtomicBoolean bulkAvailable;
+    private final HttpClient httpClient;
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
-    public LocationClient(@Value("${location.client.base-url}") String baseUrl) {
+    /**
+     * Locations by employee id. Entries older than the refresh interval are still served while a background
+     * reload runs; entries older than the TTL are dropped and fetched again on the next lookup. Concurrent
+     * lookups of an id that is still loading share the same future.
+     */
+    private final AsyncLoadingCache<String, LocationResponse> cache;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final HedgePolicy hedgePolicy;
+    private final ProximityMetrics metrics;
+
+    public LocationClient(
+            @Value("${location.client.base-url}") String baseUrl,
+            @Value("${location.client.cache.max-size:100000}") long cacheMaxSize,
+            @Value("${location.client.cache.ttl:PT1H}") Duration cacheTtl,
+            @Value("${location.client.cache.refresh-after:PT10M}") Duration cacheRefreshAfter,
+            @Value("${location.client.request-timeout:PT5S}") Duration requestTimeout,
+            @Value("${location.client.bulk.enabled:true}") boolean bulkEnabled,
+            @Value("${location.client.bulk.path:bulk}") String bulkPath,
+            @Value("${location.client.bulk.chunk-size:100}") int bulkChunkSize,
+            HttpClient httpClient,
+            @Qualifier("locationClientLimiter") AdaptiveConcurrencyLimiter limiter,
+            @Qualifier("locationClientHedgePolicy") HedgePolicy hedgePolicy,
+            ProximityMetrics metrics) {
         this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.bulkUrl = baseUrl + bulkPath;
+        this.bulkChunkSize = Math.max(1, bulkChunkSize);
+        this.bulkAvailable = new AtomicBoolean(bulkEnabled && bulkChunkSize > 1);
+        this.httpClient = httpClient;
+        this.limiter = limiter;
+        this.hedgePolicy = hedgePolicy;
+        this.metrics = metrics;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .refreshAfterWrite(cacheRefreshAfter)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<>() {
+                    @Override
+                    public CompletableFuture<LocationResponse> asyncLoad(String employeeId, Executor executor) {
+                        return fetchLocation(employeeId);
+                    }
+
+                    @Override
+                    public CompletableFuture<Map<String, LocationResponse>> asyncLoadAll(
+                            Set<? extends String> employeeIds, Executor executor) {
+                        return fetchLocations(List.copyOf(employeeIds));
+                    }
+                });
+        metrics.monitorCache("locations", cache.synchronous());
     }
 
     public LocationResponse getLocation(String employeeId) {
-        String url = baseUrl + employeeId;
+        return cache.synchronous().get(employeeId);
+    }
+
+    /**
+     * Non-blocking lookup; the future fails with an {@link IllegalStateException} when the location service
+     * errors or does not answer within the request timeout.
+     */
+    public CompletableFuture<LocationResponse> getLocationAsync(String employeeId) {
+        return cache.get(employeeId);
+    }
+
+    /**
+     * Looks up many employees at once: ids missing from the cache are requested from the bulk endpoint in
+     * chunks of the configured size, falling back to per-id requests when the bulk endpoint is unavailable or
+     * leaves ids out. Employees whose location cannot be resolved are absent from the result.
+     */
+    public Map<String, LocationResponse> getLocations(Collection<String> employeeIds) {
+        return getLocationsAsync(employeeIds).join();
+    }
+
+    public CompletableFuture<Map<String, LocationResponse>> getLocationsAsync(Collection<String> employeeIds) {
+        return cache.getAll(employeeIds);
+    }
+
+    /**
+     * Hit, miss and eviction counters of the location cache.
+     */
+    public CacheStats getCacheStats() {
+        return cache.synchronous().stats();
+    }
+
+    private CompletableFuture<Map<String, LocationResponse>> fetchLocations(List<String> employeeIds) {
+        Map<String, LocationResponse> locations = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < employeeIds.size(); from += bulkChunkSize) {
+            List<String> chunk = employeeIds.subList(from, Math.min(from + bulkChunkSize, employeeIds.size()));
+            chunks.add(fetchChunk(chunk).thenAccept(locations::putAll));
+        }
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).thenApply(ignored -> locations);
+    }
+
+    private CompletableFuture<Map<String, LocationResponse>> fetchChunk(List<String> employeeIds) {
+        CompletableFuture<Map<String, LocationResponse>> bulk = employeeIds.size() > 1 && bulkAvailable.get()
+                ? requestBulk(employeeIds).exceptionally(error -> {
+                    log.warn("Bulk location lookup of {} employees failed, falling back to per-id lookups: {}",
+                            employeeIds.size(), AsyncHttp.unwrap(error).getMessage());
+                    return Map.of();
+                })
+                : CompletableFuture.completedFuture(Map.of());
+
+        return bulk.thenCompose(found -> {
+            List<String> missing = employeeIds.stream().filter(id -> !found.containsKey(id)).toList();
+            if (missing.isEmpty()) {
+                return CompletableFuture.completedFuture(found);
+            }
+            Map<String, LocationResponse> locations = new ConcurrentHashMap<>(found);
+            CompletableFuture<?>[] singles = missing.stream()
+                    .map(id -> fetchLocation(id)
+                            .thenAccept(location -> locations.put(id, location))
+                            .exceptionally(error -> {
+                                log.debug("Per-id location lookup failed: {}", error.getMessage());
+                                return null;
+                            }))
+                    .toArray(CompletableFuture[]::new);
+            return CompletableFuture.allOf(singles).thenApply(ignored -> locations);
+        });
+    }
+
+    private CompletableFuture<Map<String, LocationResponse>> requestBulk(List<String> employeeIds) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder()
+                    .uri(URI.create(bulkUrl))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(employeeIds)))
+                    .build();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return limiter.executeAsync(() -> {
+            long start = System.nanoTime();
+            return AsyncHttp.send(httpClient, request, requestTimeout, (statusCode, body) -> {
+                        if (statusCode == 404 || statusCode == 405 || statusCode == 501) {
+                            if (bulkAvailable.compareAndSet(true, false)) {
+                                log.warn("Bulk location endpoint {} answered HTTP {}, using per-id lookups from now on",
+                                        bulkUrl, statusCode);
+                            }
+                            throw new IllegalStateException("Bulk location endpoint unavailable. HTTP status: " + statusCode);
+                        }
+                        if (statusCode != 200) {
+                            throw new IllegalStateException("Failed to fetch locations in bulk. HTTP status: " + statusCode);
+                        }
+                        Map<String, LocationResponse> locations = new HashMap<>();
+                        for (LocationResponse location : objectMapper.readValue(body, LocationResponse[].class)) {
+                            if (location != null && location.getId() != null && location.getCoordinates() != null) {
+                                locations.put(location.getId(), location);
+                            }
+                        }
+                        return locations;
+                    })
+                    .whenComplete((locations, error) ->
+                            metrics.recordClientRequest("location-bulk", System.nanoTime() - start, error == null));
+        });
+    }
+
+    private CompletableFuture<LocationResponse> fetchLocation(String employeeId) {
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
+                .uri(URI.create(baseUrl + employeeId))
+                .timeout(requestTimeout)
                 .GET()
                 .build();
 
-        try {
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                throw new IllegalStateException("Failed to fetch location for employee "
-                        + employeeId + ". HTTP status: " + response.statusCode());
-            }
-            return objectMapper.readValue(response.body(), LocationResponse.class);
-        } catch (Exception ex) {
+        return hedged(request, employeeId).exceptionally(error -> {
             throw new IllegalStateException("Exception fetching location for employee "
-                    + employeeId, ex);
+                    + employeeId, AsyncHttp.unwrap(error));
+        });
+    }
+
+    /**
+     * Sends the request and, if it is still outstanding the hedge delay after it actually went out, sends it
+     * once more. Time spent waiting for a limiter slot does not count, and no hedge is sent while other calls
+     * are queued or once the hedge budget is spent, so hedging does not add load to a saturated upstream. The
+     * first successful answer wins and the other attempt is cancelled; the lookup only fails once every
+     * attempt has failed.
+     */
+    private CompletableFuture<LocationResponse> hedged(HttpRequest request, String employeeId) {
+        if (!hedgePolicy.isEnabled()) {
+            return attempt(request, employeeId, () -> { });
         }
+        hedgePolicy.recordRequest();
+
+        CompletableFuture<LocationResponse> result = new CompletableFuture<>();
+        List<CompletableFuture<LocationResponse>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        BiConsumer<LocationResponse, Throwable> settle = (location, error) -> {
+            if (error == null) {
+                result.complete(location);
+            } else if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        };
+        Runnable hedge = () -> {
+            if (result.isDone() || limiter.getQueueDepth() > 0 || !hedgePolicy.tryAcquireHedge()
+                    || outstanding.getAndUpdate(n -> n == 0 ? 0 : n + 1) == 0) {
+                return;
+            }
+            metrics.recordHedgedRequest("location");
+            CompletableFuture<LocationResponse> second = attempt(request, employeeId, () -> { });
+            attempts.add(second);
+            second.whenComplete(settle);
+            if (result.isDone()) {
+                second.cancel(true);
+            }
+        };
+
+        CompletableFuture<LocationResponse> primary = attempt(request, employeeId, () -> {
+            long hedgeDelayNanos = hedgePolicy.hedgeDelayNanos();
+            if (hedgeDelayNanos >= 0) {
+                CompletableFuture.delayedExecutor(hedgeDelayNanos, TimeUnit.NANOSECONDS).execute(hedge);
+            }
+        });
+        attempts.add(primary);
+        primary.whenComplete(settle);
+        result.whenComplete((location, error) -> attempts.forEach(attempt -> attempt.cancel(true)));
+        return result;
+    }
+
+    /**
+     * Sends the request once a limiter slot is free and calls {@code onSent} right after it went out.
+     * Cancelling the returned future aborts the exchange and frees the slot.
+     */
+    private CompletableFuture<LocationResponse> attempt(HttpRequest request, String employeeId, Runnable onSent) {
+        return limiter.executeAsync(() -> {
+            long start = System.nanoTime();
+            CompletableFuture<LocationResponse> response = AsyncHttp.send(httpClient, request, requestTimeout, (statusCode, body) -> {
+                if (statusCode != 200) {
+                    throw new IllegalStateException("Failed to fetch location for employee "
+                            + employeeId + ". HTTP status: " + statusCode);
+                }
+                return objectMapper.readValue(body, LocationResponse.class);
+            });
+            response.whenComplete((location, error) -> {
+                if (error instanceof CancellationException) {
+                    return;
+                }
+                long latency = System.nanoTime() - start;
+                metrics.recordClientRequest("location", latency, error == null);
+                if (error == null) {
+                    hedgePolicy.recordLatency(latency);
+                }
+            });
+            onSent.run();
+            return response;
+        });
     }
 }
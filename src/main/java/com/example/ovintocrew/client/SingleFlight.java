@@ -0,0 +1,47 @@
+package com.example.ovintocrew.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into one in-flight call. The slot is cleared as soon as the
+ * call completes, so unlike a cache nothing is served after the fact; a later call starts afresh.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Starts {@code call} unless a call for the key is already running, and returns a future for its result.
+     * Every caller gets its own copy, so cancelling one does not affect the others.
+     *
+     * @param onShared run when the caller joins a call that is already running
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call, Runnable onShared) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            onShared.run();
+            return existing.copy();
+        }
+        try {
+            call.get().whenComplete((value, error) -> {
+                inFlight.remove(key, created);
+                if (error != null) {
+                    created.completeExceptionally(error);
+                } else {
+                    created.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created.copy();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
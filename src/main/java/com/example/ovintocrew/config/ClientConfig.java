@@ -0,0 +1,68 @@
+package com.example.ovintocrew.config;
+
+import com.example.ovintocrew.client.AdaptiveConcurrencyLimiter;
+import com.example.ovintocrew.client.CircuitBreaker;
+import com.example.ovintocrew.client.HedgePolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ClientConfig {
+
+    /**
+     * Shared by both upstream clients so connections are pooled across them. HTTP/2 lets concurrent lookups
+     * to the same host multiplex over one connection; servers that only speak HTTP/1.1 are still supported.
+     */
+    @Bean
+    public HttpClient upstreamHttpClient(@Value("${upstream.http.connect-timeout:PT2S}") Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter locationClientLimiter(
+            @Value("${location.client.limiter.initial-limit:20}") int initialLimit,
+            @Value("${location.client.limiter.min-limit:1}") int minLimit,
+            @Value("${location.client.limiter.max-limit:200}") int maxLimit,
+            @Value("${location.client.limiter.latency-threshold:PT2S}") Duration latencyThreshold) {
+        return new AdaptiveConcurrencyLimiter("location", initialLimit, minLimit, maxLimit, latencyThreshold);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter googleDistanceClientLimiter(
+            @Value("${google.client.limiter.initial-limit:10}") int initialLimit,
+            @Value("${google.client.limiter.min-limit:1}") int minLimit,
+            @Value("${google.client.limiter.max-limit:100}") int maxLimit,
+            @Value("${google.client.limiter.latency-threshold:PT2S}") Duration latencyThreshold) {
+        return new AdaptiveConcurrencyLimiter("google-distance", initialLimit, minLimit, maxLimit, latencyThreshold);
+    }
+
+    @Bean
+    public HedgePolicy locationClientHedgePolicy(
+            @Value("${location.client.hedge.enabled:false}") boolean enabled,
+            @Value("${location.client.hedge.percentile:0.95}") double percentile,
+            @Value("${location.client.hedge.min-delay:PT0.05S}") Duration minDelay,
+            @Value("${location.client.hedge.budget:0.05}") double budget) {
+        return enabled ? HedgePolicy.atPercentile(percentile, minDelay, budget) : HedgePolicy.disabled();
+    }
+
+    @Bean
+    public CircuitBreaker googleDistanceCircuitBreaker(
+            @Value("${google.client.circuit-breaker.window-size:50}") int windowSize,
+            @Value("${google.client.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${google.client.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${google.client.circuit-breaker.slow-call-threshold:PT3S}") Duration slowCallThreshold,
+            @Value("${google.client.circuit-breaker.open-duration:PT30S}") Duration openDuration,
+            @Value("${google.client.circuit-breaker.half-open-probes:3}") int halfOpenProbes) {
+        return new CircuitBreaker("google-distance", windowSize, minimumCalls, failureRateThreshold,
+                slowCallThreshold, openDuration, halfOpenProbes);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.ovintocrew.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SitesProperties.class)
+public class SitesConfig {
+}
@@ -0,0 +1,17 @@
+package com.example.ovintocrew.config;
+
+import com.example.ovintocrew.model.dto.Site;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Company sites that employees can be matched against, bound from {@code location.sites}.
+ */
+@ConfigurationProperties(prefix = "location")
+public record SitesProperties(List<Site> sites) {
+
+    public SitesProperties {
+        sites = sites == null ? List.of() : List.copyOf(sites);
+    }
+}
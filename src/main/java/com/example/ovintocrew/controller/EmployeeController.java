@@ -1,7 +1,11 @@
 package com.example.ovintocrew.controller;
 
+import com.example.ovintocrew.model.dto.AggregationOptions;
 import com.example.ovintocrew.model.dto.EmployeeProximityResponse;
+import com.example.ovintocrew.model.dto.EmployeeProximitySummary;
+import com.example.ovintocrew.model.dto.ProcessingPriority;
 import com.example.ovintocrew.service.EmployeeService;
+import com.example.ovintocrew.service.ProximityListener;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,15 +13,23 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 @RestController
 @RequestMapping("/api/employees")
@@ -26,6 +38,7 @@ import java.nio.charset.StandardCharsets;
 public class EmployeeController {
 
     private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
 
     @Operation(
             summary = "Process employees from file",
@@ -41,10 +54,19 @@ public class EmployeeController {
     @PostMapping(value = "/process/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<EmployeeProximityResponse> processEmployeesFromFile(
             @Parameter(description = "XML file containing employee data", required = true)
-            @RequestParam("file") MultipartFile file) throws Exception {
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Size of the nearest and furthest rankings to include, 0 to skip them")
+            @RequestParam(defaultValue = "0") int topK,
+            @Parameter(description = "Width in km of the distance histogram buckets to include")
+            @RequestParam(required = false) Double histogramBucketKm,
+            @Parameter(description = "Whether to sort the in-range employees by distance")
+            @RequestParam(defaultValue = "false") boolean sortByDistance,
+            @Parameter(description = "Share of the lookup budget next to concurrent uploads: LOW, NORMAL or HIGH")
+            @RequestParam(defaultValue = "NORMAL") ProcessingPriority priority) throws Exception {
 
-        try (InputStream inputStream = file.getInputStream()) {
-            EmployeeProximityResponse result = employeeService.getEmployeeProximityResponse(inputStream);
+        try (InputStream inputStream = UploadStreams.decode(file)) {
+            EmployeeProximityResponse result = employeeService.getEmployeeProximityResponse(inputStream,
+                    new AggregationOptions(topK, histogramBucketKm, sortByDistance), priority, ProximityListener.NONE);
             return ResponseEntity.ok(result);
         }
     }
@@ -62,12 +84,116 @@ public class EmployeeController {
     })
     @PostMapping(value = "/process", consumes = MediaType.APPLICATION_XML_VALUE)
     public ResponseEntity<EmployeeProximityResponse> processEmployeesFromBody(
-            @Parameter(description = "XML content containing employee data", required = true)
-            @RequestBody String xmlContent) throws Exception {
+            @Parameter(hidden = true) InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            @Parameter(description = "Size of the nearest and furthest rankings to include, 0 to skip them")
+            @RequestParam(defaultValue = "0") int topK,
+            @Parameter(description = "Width in km of the distance histogram buckets to include")
+            @RequestParam(required = false) Double histogramBucketKm,
+            @Parameter(description = "Whether to sort the in-range employees by distance")
+            @RequestParam(defaultValue = "false") boolean sortByDistance,
+            @Parameter(description = "Share of the lookup budget next to concurrent uploads: LOW, NORMAL or HIGH")
+            @RequestParam(defaultValue = "NORMAL") ProcessingPriority priority) throws Exception {
 
-        try (InputStream inputStream = new ByteArrayInputStream(xmlContent.getBytes(StandardCharsets.UTF_8))) {
-            EmployeeProximityResponse result = employeeService.getEmployeeProximityResponse(inputStream);
+        try (InputStream inputStream = UploadStreams.decode(body, contentEncoding)) {
+            EmployeeProximityResponse result = employeeService.getEmployeeProximityResponse(inputStream,
+                    new AggregationOptions(topK, histogramBucketKm, sortByDistance), priority, ProximityListener.NONE);
             return ResponseEntity.ok(result);
         }
     }
+
+    @Operation(
+            summary = "Stream in-range employees from file",
+            description = "Parses an XML file provided as a multipart upload and streams every employee within range as soon as "
+                    + "its location resolves, as NDJSON lines or Server-Sent Events depending on the Accept header. "
+                    + "The last line (or the 'summary' event) holds the processed count and the furthest employee."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream of in-range employees followed by the summary"),
+            @ApiResponse(responseCode = "415", description = "Unsupported Media Type", content = @Content)
+    })
+    @PostMapping(value = "/process/file/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEmployeesFromFile(
+            @Parameter(description = "XML file containing employee data", required = true)
+            @RequestParam("file") MultipartFile file) {
+        return stream(() -> UploadStreams.decode(file), MediaType.APPLICATION_NDJSON);
+    }
+
+    @PostMapping(value = "/process/file/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEmployeeEventsFromFile(
+            @Parameter(description = "XML file containing employee data", required = true)
+            @RequestParam("file") MultipartFile file) {
+        return stream(() -> UploadStreams.decode(file), MediaType.TEXT_EVENT_STREAM);
+    }
+
+    @Operation(
+            summary = "Stream in-range employees from XML body",
+            description = "Parses XML content provided in the request body and streams every employee within range as soon as "
+                    + "its location resolves, as NDJSON lines or Server-Sent Events depending on the Accept header. "
+                    + "The last line (or the 'summary' event) holds the processed count and the furthest employee."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream of in-range employees followed by the summary"),
+            @ApiResponse(responseCode = "415", description = "Unsupported Media Type", content = @Content)
+    })
+    @PostMapping(value = "/process/stream", consumes = MediaType.APPLICATION_XML_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEmployeesFromBody(
+            @Parameter(hidden = true) InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding) {
+        return stream(() -> UploadStreams.decode(body, contentEncoding), MediaType.APPLICATION_NDJSON);
+    }
+
+    @PostMapping(value = "/process/stream", consumes = MediaType.APPLICATION_XML_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEmployeeEventsFromBody(
+            @Parameter(hidden = true) InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding) {
+        return stream(() -> UploadStreams.decode(body, contentEncoding), MediaType.TEXT_EVENT_STREAM);
+    }
+
+    /**
+     * Streams the in-range employees and then the summary as NDJSON lines or as Server-Sent Events named
+     * {@code employee} and {@code summary}. Both run on the MVC async executor; a failed write, such as to a
+     * client that went away, cancels the rest of the upload's lookups.
+     */
+    private ResponseEntity<StreamingResponseBody> stream(InputStreamSource source, MediaType mediaType) {
+        boolean events = MediaType.TEXT_EVENT_STREAM.equals(mediaType);
+        StreamingResponseBody responseBody = outputStream -> {
+            Lock writeLock = new ReentrantLock();
+            try (InputStream inputStream = source.getInputStream()) {
+                EmployeeProximitySummary summary = employeeService.streamEmployeeProximity(inputStream, employee -> {
+                    writeLock.lock();
+                    try {
+                        write(outputStream, events, "employee", employee);
+                    } finally {
+                        writeLock.unlock();
+                    }
+                });
+                write(outputStream, events, "summary", summary);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .body(responseBody);
+    }
+
+    private void write(OutputStream outputStream, boolean events, String name, Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            if (events) {
+                outputStream.write(("event:" + name + "\ndata:").getBytes(StandardCharsets.UTF_8));
+                outputStream.write(json);
+                outputStream.write("\n\n".getBytes(StandardCharsets.UTF_8));
+            } else {
+                outputStream.write(json);
+                outputStream.write('\n');
+            }
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,125 @@
+package com.example.ovintocrew.controller;
+
+import com.example.ovintocrew.model.dto.AggregationOptions;
+import com.example.ovintocrew.model.dto.ProcessingPriority;
+import com.example.ovintocrew.model.dto.ProximityJobStatus;
+import com.example.ovintocrew.service.ProximityJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/employees/jobs")
+@RequiredArgsConstructor
+@Tag(name = "Employee Job Controller", description = "Background processing of large employee XML uploads")
+public class EmployeeJobController {
+
+    private final ProximityJobService proximityJobService;
+
+    @Operation(
+            summary = "Submit a job from file",
+            description = "Queues an XML file provided as a multipart upload for background processing and returns the job id right away."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Job queued",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProximityJobStatus.class))),
+            @ApiResponse(responseCode = "413", description = "Upload too large once decompressed", content = @Content),
+            @ApiResponse(responseCode = "415", description = "Unsupported Media Type", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Job queue is full", content = @Content)
+    })
+    @PostMapping(value = "/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ProximityJobStatus> submitJobFromFile(
+            @Parameter(description = "XML file containing employee data", required = true)
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Size of the nearest and furthest rankings to include, 0 to skip them")
+            @RequestParam(defaultValue = "0") int topK,
+            @Parameter(description = "Width in km of the distance histogram buckets to include")
+            @RequestParam(required = false) Double histogramBucketKm,
+            @Parameter(description = "Whether to sort the in-range employees by distance")
+            @RequestParam(defaultValue = "false") boolean sortByDistance,
+            @Parameter(description = "Share of the lookup budget next to concurrent uploads: LOW, NORMAL or HIGH")
+            @RequestParam(defaultValue = "LOW") ProcessingPriority priority) throws IOException {
+
+        try (InputStream inputStream = UploadStreams.decode(file)) {
+            return accepted(proximityJobService.submit(inputStream,
+                    new AggregationOptions(topK, histogramBucketKm, sortByDistance), priority));
+        }
+    }
+
+    @Operation(
+            summary = "Submit a job from XML body",
+            description = "Queues XML content provided in the request body for background processing and returns the job id right away."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Job queued",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProximityJobStatus.class))),
+            @ApiResponse(responseCode = "413", description = "Upload too large once decompressed", content = @Content),
+            @ApiResponse(responseCode = "415", description = "Unsupported Media Type", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Job queue is full", content = @Content)
+    })
+    @PostMapping(consumes = MediaType.APPLICATION_XML_VALUE)
+    public ResponseEntity<ProximityJobStatus> submitJobFromBody(
+            @Parameter(hidden = true) InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            @Parameter(description = "Size of the nearest and furthest rankings to include, 0 to skip them")
+            @RequestParam(defaultValue = "0") int topK,
+            @Parameter(description = "Width in km of the distance histogram buckets to include")
+            @RequestParam(required = false) Double histogramBucketKm,
+            @Parameter(description = "Whether to sort the in-range employees by distance")
+            @RequestParam(defaultValue = "false") boolean sortByDistance,
+            @Parameter(description = "Share of the lookup budget next to concurrent uploads: LOW, NORMAL or HIGH")
+            @RequestParam(defaultValue = "LOW") ProcessingPriority priority) throws IOException {
+
+        try (InputStream inputStream = UploadStreams.decode(body, contentEncoding)) {
+            return accepted(proximityJobService.submit(inputStream, new AggregationOptions(topK, histogramBucketKm, sortByDistance), priority));
+        }
+    }
+
+    @Operation(
+            summary = "Get job status",
+            description = "Returns the progress of a job and, once it has completed, its proximity result. "
+                    + "With waitSeconds the request is held until the job finishes or the wait elapses."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job status",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ProximityJobStatus.class))),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired job", content = @Content)
+    })
+    @GetMapping("/{jobId}")
+    public CompletableFuture<ProximityJobStatus> getJobStatus(
+            @Parameter(description = "Job id returned on submission", required = true)
+            @PathVariable String jobId,
+            @Parameter(description = "Seconds to wait for the job to finish before answering")
+            @RequestParam(defaultValue = "0") long waitSeconds) {
+
+        return proximityJobService.awaitStatus(jobId, Duration.ofSeconds(waitSeconds));
+    }
+
+    private static ResponseEntity<ProximityJobStatus> accepted(ProximityJobStatus status) {
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/employees/jobs/{jobId}")
+                .buildAndExpand(status.id())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+}
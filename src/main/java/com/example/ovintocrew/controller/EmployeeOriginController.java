@@ -0,0 +1,95 @@
+package com.example.ovintocrew.controller;
+
+import com.example.ovintocrew.model.dto.OriginProximityResponse;
+import com.example.ovintocrew.service.OriginProximityService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/employees/origins")
+@RequiredArgsConstructor
+@Tag(name = "Employee Origin Controller", description = "Multi-origin, multi-threshold proximity queries")
+public class EmployeeOriginController {
+
+    private final OriginProximityService originProximityService;
+
+    @Operation(
+            summary = "Match employees from file against several origins and thresholds",
+            description = "Parses an XML file provided as a multipart upload, resolves every employee once, and returns the "
+                    + "employees within each threshold of each origin, sorted by distance."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Employees matched successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = OriginProximityResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Unknown origin or invalid threshold", content = @Content),
+            @ApiResponse(responseCode = "415", description = "Unsupported Media Type", content = @Content)
+    })
+    @PostMapping(value = "/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<OriginProximityResponse> matchOriginsFromFile(
+            @Parameter(description = "XML file containing employee data", required = true)
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Semicolon-separated site names or lat,lon pairs, all configured sites when omitted")
+            @RequestParam(required = false) String origins,
+            @Parameter(description = "Thresholds in km, the configured threshold when omitted")
+            @RequestParam(required = false) List<Double> thresholdsKm,
+            @Parameter(description = "Whether to use Google road distances instead of Haversine only")
+            @RequestParam(defaultValue = "true") boolean roadDistances) throws IOException {
+
+        try (InputStream inputStream = UploadStreams.decode(file)) {
+            return ResponseEntity.ok(originProximityService.getOriginProximity(inputStream, splitOrigins(origins),
+                    thresholdsKm, roadDistances));
+        }
+    }
+
+    @Operation(
+            summary = "Match employees from XML body against several origins and thresholds",
+            description = "Parses XML content provided in the request body, resolves every employee once, and returns the "
+                    + "employees within each threshold of each origin, sorted by distance."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Employees matched successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = OriginProximityResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Unknown origin or invalid threshold", content = @Content),
+            @ApiResponse(responseCode = "415", description = "Unsupported Media Type", content = @Content)
+    })
+    @PostMapping(consumes = MediaType.APPLICATION_XML_VALUE)
+    public ResponseEntity<OriginProximityResponse> matchOriginsFromBody(
+            @Parameter(hidden = true) InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            @Parameter(description = "Semicolon-separated site names or lat,lon pairs, all configured sites when omitted")
+            @RequestParam(required = false) String origins,
+            @Parameter(description = "Thresholds in km, the configured threshold when omitted")
+            @RequestParam(required = false) List<Double> thresholdsKm,
+            @Parameter(description = "Whether to use Google road distances instead of Haversine only")
+            @RequestParam(defaultValue = "true") boolean roadDistances) throws IOException {
+
+        try (InputStream inputStream = UploadStreams.decode(body, contentEncoding)) {
+            return ResponseEntity.ok(originProximityService.getOriginProximity(inputStream, splitOrigins(origins),
+                    thresholdsKm, roadDistances));
+        }
+    }
+
+    private static List<String> splitOrigins(String origins) {
+        return origins == null ? List.of() : Arrays.stream(origins.split(";"))
+                .filter(origin -> !origin.isBlank())
+                .toList();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.ovintocrew.controller;
+
+import com.example.ovintocrew.model.dto.SiteProximityResponse;
+import com.example.ovintocrew.service.SiteProximityService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/employees/sites")
+@RequiredArgsConstructor
+@Tag(name = "Employee Site Controller", description = "Radius and nearest-site queries over employee positions")
+public class EmployeeSiteController {
+
+    private final SiteProximityService siteProximityService;
+
+    @Operation(
+            summary = "Match employees from file against sites",
+            description = "Parses an XML file provided as a multipart upload, resolves employee positions, and returns the employees "
+                    + "within the radius of each configured site together with the nearest site of every employee."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Employees matched successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = SiteProximityResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Unknown site or invalid radius", content = @Content),
+            @ApiResponse(responseCode = "415", description = "Unsupported Media Type", content = @Content)
+    })
+    @PostMapping(value = "/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<SiteProximityResponse> matchSitesFromFile(
+            @Parameter(description = "XML file containing employee data", required = true)
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Radius around each site in km", required = true)
+            @RequestParam double radiusKm,
+            @Parameter(description = "Only match against this site")
+            @RequestParam(required = false) String site) throws IOException {
+
+        try (InputStream inputStream = UploadStreams.decode(file)) {
+            return ResponseEntity.ok(siteProximityService.getSiteProximity(inputStream, radiusKm, site));
+        }
+    }
+
+    @Operation(
+            summary = "Match employees from XML body against sites",
+            description = "Parses XML content provided in the request body, resolves employee positions, and returns the employees "
+                    + "within the radius of each configured site together with the nearest site of every employee."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Employees matched successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = SiteProximityResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Unknown site or invalid radius", content = @Content),
+            @ApiResponse(responseCode = "415", description = "Unsupported Media Type", content = @Content)
+    })
+    @PostMapping(consumes = MediaType.APPLICATION_XML_VALUE)
+    public ResponseEntity<SiteProximityResponse> matchSitesFromBody(
+            @Parameter(hidden = true) InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            @Parameter(description = "Radius around each site in km", required = true)
+            @RequestParam double radiusKm,
+            @Parameter(description = "Only match against this site")
+            @RequestParam(required = false) String site) throws IOException {
+
+        try (InputStream inputStream = UploadStreams.decode(body, contentEncoding)) {
+            return ResponseEntity.ok(siteProximityService.getSiteProximity(inputStream, radiusKm, site));
+        }
+    }
+}
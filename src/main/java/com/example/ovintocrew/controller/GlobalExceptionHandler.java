@@ -1,11 +1,15 @@
 package com.example.ovintocrew.controller;
 
+import com.example.ovintocrew.service.JobNotFoundException;
+import com.example.ovintocrew.service.JobQueueFullException;
+import com.example.ovintocrew.service.UploadTooLargeException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -29,4 +33,25 @@ public class GlobalExceptionHandler {
                 .status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
                 .body("Unsupported Media Type: " + ex.getContentType());
     }
+
+    @ExceptionHandler(UploadTooLargeException.class)
+    public ResponseEntity<String> handleUploadTooLarge(UploadTooLargeException ex) {
+        return ResponseEntity
+                .status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body("Payload Too Large: " + ex.getMessage());
+    }
+
+    @ExceptionHandler(JobNotFoundException.class)
+    public ResponseEntity<String> handleJobNotFound(JobNotFoundException ex) {
+        return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body("Not Found: " + ex.getMessage());
+    }
+
+    @ExceptionHandler(JobQueueFullException.class)
+    public ResponseEntity<String> handleJobQueueFull(JobQueueFullException ex) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("Service Unavailable: too many pending jobs, retry later");
+    }
 }
@@ -0,0 +1,59 @@
+package com.example.ovintocrew.controller;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Turns an upload into a stream of plain XML for the parser, decompressing gzip and zstd on the fly so
+ * neither the compressed nor the inflated roster is ever held in memory. The encoding comes from
+ * {@code Content-Encoding} or the file extension, and is otherwise detected from the leading magic bytes.
+ */
+final class UploadStreams {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private UploadStreams() {
+    }
+
+    static InputStream decode(InputStream body, String contentEncoding) throws IOException {
+        String encoding = contentEncoding == null ? "" : contentEncoding.strip().toLowerCase(Locale.ROOT);
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(body, BUFFER_SIZE);
+            case "zstd" -> new ZstdInputStream(new BufferedInputStream(body, BUFFER_SIZE));
+            case "", "identity" -> sniff(body);
+            default -> throw new IllegalArgumentException("Unsupported Content-Encoding: " + contentEncoding);
+        };
+    }
+
+    static InputStream decode(MultipartFile file) throws IOException {
+        String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) {
+            return decode(file.getInputStream(), "gzip");
+        }
+        if (name.endsWith(".zst")) {
+            return decode(file.getInputStream(), "zstd");
+        }
+        return decode(file.getInputStream(), null);
+    }
+
+    private static InputStream sniff(InputStream body) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(body, BUFFER_SIZE);
+        buffered.mark(4);
+        byte[] magic = buffered.readNBytes(4);
+        buffered.reset();
+        if (magic.length >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+            return new GZIPInputStream(buffered, BUFFER_SIZE);
+        }
+        if (magic.length == 4 && (magic[0] & 0xff) == 0x28 && (magic[1] & 0xff) == 0xb5
+                && (magic[2] & 0xff) == 0x2f && (magic[3] & 0xff) == 0xfd) {
+            return new ZstdInputStream(buffered);
+        }
+        return buffered;
+    }
+}
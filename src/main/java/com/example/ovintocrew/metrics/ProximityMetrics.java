@@ -0,0 +1,143 @@
+package com.example.ovintocrew.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters for each stage of the proximity pipeline. Timers publish percentile histograms so p99 can be
+ * computed per stage in Prometheus.
+ */
+@Component
+public class ProximityMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer xmlParse;
+    private final Timer fanOut;
+    private final Timer locationLookup;
+    private final Timer distanceLookup;
+    private final Counter haversineFallback;
+    private final Counter locationFailure;
+    private final Counter snapshotReuse;
+    private final Counter distanceSkipped;
+    private final AtomicInteger inFlightLookups = new AtomicInteger();
+    private final Map<String, Timer> clientRequests = new ConcurrentHashMap<>();
+    private final Map<String, Counter> hedgedRequests = new ConcurrentHashMap<>();
+    private final Map<String, Counter> coalescedLookups = new ConcurrentHashMap<>();
+
+    public ProximityMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.xmlParse = histogramTimer("ovintocrew.xml.parse", "Time spent reading employees from the uploaded XML");
+        this.fanOut = histogramTimer("ovintocrew.fanout", "Duration of a whole roster fan-out, from first employee to aggregation");
+        this.locationLookup = histogramTimer("ovintocrew.employee.location", "Per-employee location lookup, cache included");
+        this.distanceLookup = histogramTimer("ovintocrew.employee.distance", "Per-employee Google distance lookup, batching included");
+        this.haversineFallback = Counter.builder("ovintocrew.distance.fallback")
+                .description("Employees whose distance fell back to the Haversine formula")
+                .register(registry);
+        this.locationFailure = Counter.builder("ovintocrew.employee.location.failures")
+                .description("Employees whose location could not be resolved")
+                .register(registry);
+        this.snapshotReuse = Counter.builder("ovintocrew.snapshot.reused")
+                .description("Employees taken unchanged from the previous upload without any lookup")
+                .register(registry);
+        this.distanceSkipped = Counter.builder("ovintocrew.distance.skipped")
+                .description("Employees whose Google distance was skipped because the great-circle bound ruled them out")
+                .register(registry);
+        Gauge.builder("ovintocrew.fanout.in-flight", inFlightLookups, AtomicInteger::get)
+                .description("Employee lookups currently running on virtual threads")
+                .register(registry);
+    }
+
+    private Timer histogramTimer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void recordXmlParse(long nanos) {
+        xmlParse.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Timer fanOut() {
+        return fanOut;
+    }
+
+    public Timer locationLookup() {
+        return locationLookup;
+    }
+
+    public Timer distanceLookup() {
+        return distanceLookup;
+    }
+
+    public void recordHaversineFallback() {
+        haversineFallback.increment();
+    }
+
+    public void recordDistanceSkipped() {
+        distanceSkipped.increment();
+    }
+
+    public void recordLocationFailure() {
+        locationFailure.increment();
+    }
+
+    public void recordSnapshotReuse(int employees) {
+        snapshotReuse.increment(employees);
+    }
+
+    public void lookupStarted() {
+        inFlightLookups.incrementAndGet();
+    }
+
+    public void lookupFinished() {
+        inFlightLookups.decrementAndGet();
+    }
+
+    /**
+     * Records one outbound HTTP call of the given client.
+     */
+    public void recordClientRequest(String client, long nanos, boolean success) {
+        String outcome = success ? "success" : "error";
+        clientRequests.computeIfAbsent(client + '|' + outcome, key -> Timer.builder("ovintocrew.client.requests")
+                        .description("Outbound HTTP requests to upstream services")
+                        .tag("client", client)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a lookup that joined an identical one already in flight instead of going upstream.
+     */
+    public void recordCoalescedLookup(String kind) {
+        coalescedLookups.computeIfAbsent(kind, key -> Counter.builder("ovintocrew.lookup.coalesced")
+                        .description("Lookups that shared an identical in-flight lookup instead of sending their own")
+                        .tag("kind", kind)
+                        .register(registry))
+                .increment();
+    }
+
+    public void recordHedgedRequest(String client) {
+        hedgedRequests.computeIfAbsent(client, key -> Counter.builder("ovintocrew.client.hedged-requests")
+                        .description("Duplicate requests sent because the first one passed the hedge delay")
+                        .tag("client", client)
+                        .register(registry))
+                .increment();
+    }
+
+    public void monitorCache(String name, Cache<?, ?> cache) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.ovintocrew.model.dto;
+
+/**
+ * Optional extras computed while the roster is processed.
+ *
+ * @param topK               size of the nearest and furthest rankings, 0 to skip them
+ * @param histogramBucketKm  width of the distance histogram buckets, {@code null} to skip the histogram
+ * @param sortWithinRange    whether the in-range employees are returned sorted by distance
+ */
+public record AggregationOptions(int topK, Double histogramBucketKm, boolean sortWithinRange) {
+
+    public static final AggregationOptions DEFAULT = new AggregationOptions(0, null, false);
+
+    public AggregationOptions {
+        if (topK < 0) {
+            throw new IllegalArgumentException("topK must not be negative");
+        }
+        if (histogramBucketKm != null && !(histogramBucketKm > 0)) {
+            throw new IllegalArgumentException("histogramBucketKm must be positive");
+        }
+    }
+}
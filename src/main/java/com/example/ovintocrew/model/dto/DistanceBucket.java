@@ -0,0 +1,3 @@
+package com.example.ovintocrew.model.dto;
+
+public record DistanceBucket(double fromKm, double toKm, long count) {}
@@ -0,0 +1,3 @@
+package com.example.ovintocrew.model.dto;
+
+public record EmployeeDistance(Employee employee, double distanceKm) {}
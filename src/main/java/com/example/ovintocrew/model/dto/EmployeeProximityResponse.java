@@ -1,7 +1,17 @@
 package com.example.ovintocrew.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import java.util.List;
 
 @Builder
-public record EmployeeProximityResponse(List<Employee> withinRange, Employee furthest) {}
+public record EmployeeProximityResponse(
+        List<Employee> withinRange,
+        Employee furthest,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        List<Employee> topNearest,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        List<Employee> topFurthest,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        List<DistanceBucket> distanceHistogram
+) {}
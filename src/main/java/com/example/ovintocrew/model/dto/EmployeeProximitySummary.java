@@ -0,0 +1,3 @@
+package com.example.ovintocrew.model.dto;
+
+public record EmployeeProximitySummary(int processed, int withinRangeCount, Employee furthest) {}
@@ -0,0 +1,3 @@
+package com.example.ovintocrew.model.dto;
+
+public record NearestSite(String employeeId, String site, double distanceKm) {}
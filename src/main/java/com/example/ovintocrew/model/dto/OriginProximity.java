@@ -0,0 +1,5 @@
+package com.example.ovintocrew.model.dto;
+
+import java.util.List;
+
+public record OriginProximity(Site origin, List<ThresholdProximity> thresholds, EmployeeDistance furthest) {}
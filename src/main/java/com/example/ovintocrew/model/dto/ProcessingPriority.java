@@ -0,0 +1,21 @@
+package com.example.ovintocrew.model.dto;
+
+/**
+ * Hint for how an upload shares the resolution budget with concurrent uploads: each gets lookups in
+ * proportion to its weight, whatever the size of its roster.
+ */
+public enum ProcessingPriority {
+    LOW(1),
+    NORMAL(4),
+    HIGH(16);
+
+    private final int weight;
+
+    ProcessingPriority(int weight) {
+        this.weight = weight;
+    }
+
+    public int weight() {
+        return weight;
+    }
+}
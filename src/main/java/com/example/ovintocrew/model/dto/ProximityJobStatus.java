@@ -0,0 +1,25 @@
+package com.example.ovintocrew.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+
+import java.time.Instant;
+
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProximityJobStatus(
+        String id,
+        State state,
+        int processed,
+        int total,
+        boolean totalKnown,
+        int withinRangeCount,
+        Instant submittedAt,
+        Instant completedAt,
+        String error,
+        EmployeeProximityResponse result
+) {
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,3 @@
+package com.example.ovintocrew.model.dto;
+
+public record Site(String name, double latitude, double longitude) {}
@@ -0,0 +1,8 @@
+package com.example.ovintocrew.model.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record SiteProximityResponse(double radiusKm, List<SiteProximity> sites, List<NearestSite> nearestSites) {}
@@ -0,0 +1,185 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.model.dto.Employee;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays store for resolved employees: coordinates and distances live in primitive columns with
+ * NaN for unresolved values, names are dictionary-encoded, and rows are found by id through an
+ * open-addressing table of row numbers. A row costs a few dozen bytes instead of an {@link Employee} with
+ * boxed doubles, and {@link Employee} views are only built for rows that end up in a response.
+ * <p>
+ * This is the storage of the {@link RosterSnapshot} only, which is what holds a whole roster between uploads.
+ * Employees resolved during an upload still travel as {@link Employee} records to the aggregator and the
+ * listeners; reused rows already carry their road distance, so there is nothing to recompute over the columns.
+ * <p>
+ * Not thread-safe; callers that append concurrently must synchronize, and a roster must be safely published
+ * before other threads read it.
+ */
+final class ColumnarRoster {
+
+    private final StringDictionary names;
+    private String[] ids;
+    private String[] emails;
+    private int[] firstNames;
+    private int[] lastNames;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] distances;
+    private long[] contentHashes;
+    private long[] resolvedAt;
+    private int size;
+    /**
+     * Row number + 1 per slot, 0 for an empty slot; kept at most half full.
+     */
+    private int[] slots;
+
+    ColumnarRoster(StringDictionary names, int expectedSize) {
+        this.names = names;
+        int capacity = Math.max(16, expectedSize);
+        ids = new String[capacity];
+        emails = new String[capacity];
+        firstNames = new int[capacity];
+        lastNames = new int[capacity];
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        distances = new double[capacity];
+        contentHashes = new long[capacity];
+        resolvedAt = new long[capacity];
+        slots = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Appends a row, replacing the id lookup of an earlier row with the same id, and returns its number.
+     */
+    int append(Employee employee, long contentHash, long resolvedAtNanos) {
+        int row = nextRow(employee.id());
+        emails[row] = employee.email();
+        firstNames[row] = names.encode(employee.firstName());
+        lastNames[row] = names.encode(employee.lastName());
+        latitudes[row] = employee.latitude() != null ? employee.latitude() : Double.NaN;
+        longitudes[row] = employee.longitude() != null ? employee.longitude() : Double.NaN;
+        distances[row] = employee.distanceFromHQ() != null ? employee.distanceFromHQ() : Double.NaN;
+        contentHashes[row] = contentHash;
+        resolvedAt[row] = resolvedAtNanos;
+        return row;
+    }
+
+    /**
+     * Copies a row of another roster without materializing it; names are re-encoded only when the source has
+     * a different dictionary.
+     */
+    int copy(ColumnarRoster source, int sourceRow) {
+        int row = nextRow(source.ids[sourceRow]);
+        emails[row] = source.emails[sourceRow];
+        firstNames[row] = recode(source, source.firstNames[sourceRow]);
+        lastNames[row] = recode(source, source.lastNames[sourceRow]);
+        latitudes[row] = source.latitudes[sourceRow];
+        longitudes[row] = source.longitudes[sourceRow];
+        distances[row] = source.distances[sourceRow];
+        contentHashes[row] = source.contentHashes[sourceRow];
+        resolvedAt[row] = source.resolvedAt[sourceRow];
+        return row;
+    }
+
+    private int recode(ColumnarRoster source, int code) {
+        return source.names == names ? code : names.encode(source.names.decode(code));
+    }
+
+    /**
+     * Returns the row of the given id, or -1.
+     */
+    int find(String id) {
+        int mask = slots.length - 1;
+        for (int slot = spread(id.hashCode()) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int row = slots[slot] - 1;
+            if (ids[row].equals(id)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    double distance(int row) {
+        return distances[row];
+    }
+
+    long contentHash(int row) {
+        return contentHashes[row];
+    }
+
+    long resolvedAt(int row) {
+        return resolvedAt[row];
+    }
+
+    Employee view(int row) {
+        return Employee.builder()
+                .id(ids[row])
+                .firstName(names.decode(firstNames[row]))
+                .lastName(names.decode(lastNames[row]))
+                .email(emails[row])
+                .latitude(boxed(latitudes[row]))
+                .longitude(boxed(longitudes[row]))
+                .distanceFromHQ(boxed(distances[row]))
+                .build();
+    }
+
+    private int nextRow(String id) {
+        if (size == ids.length) {
+            grow();
+        }
+        int row = size++;
+        ids[row] = id;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        } else {
+            index(row);
+        }
+        return row;
+    }
+
+    private void index(int row) {
+        int mask = slots.length - 1;
+        int slot = spread(ids[row].hashCode()) & mask;
+        while (slots[slot] != 0) {
+            if (ids[slots[slot] - 1].equals(ids[row])) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = row + 1;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        for (int row = 0; row < size; row++) {
+            index(row);
+        }
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        emails = Arrays.copyOf(emails, capacity);
+        firstNames = Arrays.copyOf(firstNames, capacity);
+        lastNames = Arrays.copyOf(lastNames, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        distances = Arrays.copyOf(distances, capacity);
+        contentHashes = Arrays.copyOf(contentHashes, capacity);
+        resolvedAt = Arrays.copyOf(resolvedAt, capacity);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static Double boxed(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
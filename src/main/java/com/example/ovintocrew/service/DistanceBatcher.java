@@ -0,0 +1,146 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.client.GoogleDistanceClient;
+import com.example.ovintocrew.client.SingleFlight;
+import com.example.ovintocrew.metrics.ProximityMetrics;
+import com.example.ovintocrew.model.dto.Coordinates;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects concurrent distance lookups that share an origin into micro-batches, so the virtual-thread fan-out
+ * sends one Distance Matrix request per batch instead of one per employee. A batch is sent as soon as it is
+ * full or when its time window elapses, whichever comes first. Concurrent lookups of the same origin and
+ * destination, typically the same employee in overlapping uploads, share one slot of one batch.
+ */
+@Component
+@Slf4j
+public class DistanceBatcher implements DisposableBean {
+
+    private final GoogleDistanceClient googleDistanceClient;
+    private final int batchSize;
+    private final long windowMillis;
+    private final ProximityMetrics metrics;
+    private final SingleFlight<Route, Double> inFlight = new SingleFlight<>();
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("distance-batcher").daemon().factory());
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Origin, Batch> openBatches = new HashMap<>();
+
+    public DistanceBatcher(
+            GoogleDistanceClient googleDistanceClient,
+            @Value("${google.client.batch.size:25}") int batchSize,
+            @Value("${google.client.batch.window-ms:20}") long windowMillis,
+            ProximityMetrics metrics) {
+        this.googleDistanceClient = googleDistanceClient;
+        this.batchSize = Math.clamp(batchSize, 1, GoogleDistanceClient.MAX_DESTINATIONS_PER_REQUEST);
+        this.windowMillis = windowMillis;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Queues a lookup and returns a future for its road distance in km. The future fails on its own when
+     * Google cannot route this destination, without affecting the rest of the batch.
+     */
+    public CompletableFuture<Double> getDistance(double originLat, double originLon, double destLat, double destLon) {
+        Origin origin = new Origin(originLat, originLon);
+        Coordinates destination = new Coordinates(destLat, destLon);
+        return inFlight.execute(new Route(origin, destination), () -> enqueue(origin, destination),
+                () -> metrics.recordCoalescedLookup("distance"));
+    }
+
+    private CompletableFuture<Double> enqueue(Origin origin, Coordinates destination) {
+        PendingDistance pending = new PendingDistance(destination, new CompletableFuture<>());
+        Batch fullBatch = null;
+
+        lock.lock();
+        try {
+            Batch batch = openBatches.computeIfAbsent(origin, this::openBatch);
+            batch.items.add(pending);
+            if (batch.items.size() >= batchSize) {
+                openBatches.remove(origin);
+                fullBatch = batch;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return pending.result;
+    }
+
+    private Batch openBatch(Origin origin) {
+        Batch batch = new Batch(origin);
+        batch.windowTimer = timer.schedule(() -> flushOnTimeout(batch), windowMillis, TimeUnit.MILLISECONDS);
+        return batch;
+    }
+
+    private void flushOnTimeout(Batch batch) {
+        lock.lock();
+        try {
+            if (!openBatches.remove(batch.origin, batch)) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch batch) {
+        batch.windowTimer.cancel(false);
+        List<Coordinates> destinations = batch.items.stream().map(PendingDistance::destination).toList();
+        googleDistanceClient.getDistancesAsync(batch.origin.lat(), batch.origin.lon(), destinations)
+                .whenComplete((distances, error) -> complete(batch, distances, error));
+    }
+
+    private void complete(Batch batch, double[] distances, Throwable error) {
+        if (error != null) {
+            batch.items.forEach(pending -> pending.result.completeExceptionally(error));
+            return;
+        }
+        log.debug("Resolved a batch of {} distances with one Google request", distances.length);
+        for (int i = 0; i < distances.length; i++) {
+            PendingDistance pending = batch.items.get(i);
+            if (Double.isNaN(distances[i])) {
+                pending.result.completeExceptionally(new IllegalStateException(
+                        "Google could not route destination " + pending.destination()));
+            } else {
+                pending.result.complete(distances[i]);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+    }
+
+    private record Origin(double lat, double lon) {}
+
+    private record Route(Origin origin, Coordinates destination) {}
+
+    private record PendingDistance(Coordinates destination, CompletableFuture<Double> result) {}
+
+    private static final class Batch {
+        private final Origin origin;
+        private final List<PendingDistance> items = new ArrayList<>();
+        private ScheduledFuture<?> windowTimer;
+
+        private Batch(Origin origin) {
+            this.origin = origin;
+        }
+    }
+}
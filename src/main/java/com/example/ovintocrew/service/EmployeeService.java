@@ -1,29 +1,24 @@
 package com.example.ovintocrew.service;
 
-import com.example.ovintocrew.client.GoogleDistanceClient;
 import com.example.ovintocrew.client.LocationClient;
+import com.example.ovintocrew.metrics.ProximityMetrics;
+import com.example.ovintocrew.model.dto.AggregationOptions;
 import com.example.ovintocrew.model.dto.Employee;
 import com.example.ovintocrew.model.dto.EmployeeProximityResponse;
+import com.example.ovintocrew.model.dto.EmployeeProximitySummary;
 import com.example.ovintocrew.model.dto.LocationResponse;
+import com.example.ovintocrew.model.dto.ProcessingPriority;
+import com.example.ovintocrew.store.LocationStore;
+import com.example.ovintocrew.store.StoredLocation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import java.io.IOException;
+
 import java.io.InputStream;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.function.Consumer;
 
 import static com.example.ovintocrew.Util.DistanceUtil.calculateDistance;
 
@@ -41,72 +36,138 @@ public class EmployeeService {
     @Value("${employee.threshold.km}")
     private double thresholdKm;
 
+    /**
+     * Number of employees whose locations are fetched with one bulk request; 1 or less looks up each
+     * employee on its own.
+     */
+    @Value("${location.client.bulk.chunk-size:100}")
+    private int locationChunkSize;
+
+    /**
+     * Skips the Google call for employees the great-circle distance already rules out; see
+     * {@link HaversinePrefilter}. Only applies when no ranking or histogram needs every exact distance.
+     */
+    @Value("${employee.prefilter.enabled:false}")
+    private boolean prefilterEnabled;
+
+    @Value("${employee.prefilter.max-detour-factor:2.0}")
+    private double maxDetourFactor;
+
     private final LocationClient locationClient;
-    private final GoogleDistanceClient googleDistanceClient;
-
-    public EmployeeProximityResponse getEmployeeProximityResponse(InputStream inputStream) throws Exception {
-        List<Employee> employees = parseEmployeesFromXml(inputStream);
-        log.info("Parsed {} employees from XML", employees.size());
-        return processEmployeesIncrementally(employees);
-    }
-
-    public List<Employee> parseEmployeesFromXml(InputStream inputStream) throws ParserConfigurationException, SAXException, IOException {
-        Document document = getDocument(inputStream);
-        return extractEmployees(document);
-    }
-
-    private static Document getDocument(InputStream inputStream) throws ParserConfigurationException, SAXException, IOException {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        Document document = builder.parse(inputStream);
-        document.getDocumentElement().normalize();
-        return document;
-    }
-
-    private static List<Employee> extractEmployees(Document document) {
-        NodeList nodeList = document.getElementsByTagName("Employee");
-        return IntStream.range(0, nodeList.getLength())
-                .mapToObj(nodeList::item)
-                .filter(node -> node instanceof Element)
-                .map(node -> (Element) node)
-                .map(EmployeeService::parseEmployee)
-                .collect(Collectors.toList());
-    }
-
-    private static Employee parseEmployee(Element employeeElement) {
-        String id = employeeElement.getAttribute("id");
-        String firstName = getTagValue(employeeElement, "FirstName");
-        String lastName = getTagValue(employeeElement, "LastName");
-        String email = getTagValue(employeeElement, "Email");
-        return Employee.builder()
-                .id(id)
-                .firstName(firstName)
-                .lastName(lastName)
-                .email(email)
-                .build();
+    private final DistanceBatcher distanceBatcher;
+    private final ProximityMetrics metrics;
+    private final RosterSnapshot rosterSnapshot;
+    private final LocationStore locationStore;
+    private final ResolutionScheduler resolutionScheduler;
+
+    public EmployeeProximityResponse getEmployeeProximityResponse(InputStream inputStream) {
+        return getEmployeeProximityResponse(inputStream, AggregationOptions.DEFAULT, ProximityListener.NONE);
     }
 
-    private static String getTagValue(Element parent, String tagName) {
-        NodeList list = parent.getElementsByTagName(tagName);
-        return (list.getLength() > 0) ? list.item(0).getTextContent() : "";
+    public EmployeeProximityResponse getEmployeeProximityResponse(InputStream inputStream, AggregationOptions options,
+                                                                  ProximityListener listener) {
+        return getEmployeeProximityResponse(inputStream, options, ProcessingPriority.NORMAL, listener);
+    }
+
+    /**
+     * Like {@link #getEmployeeProximityResponse(InputStream, AggregationOptions, ProximityListener)}, with the
+     * share of the {@link ResolutionScheduler} budget this upload gets next to concurrent ones.
+     */
+    public EmployeeProximityResponse getEmployeeProximityResponse(InputStream inputStream, AggregationOptions options,
+                                                                  ProcessingPriority priority, ProximityListener listener) {
+        try (EmployeeXmlReader reader = new EmployeeXmlReader(inputStream)) {
+            ProximityAggregator aggregator = new ProximityAggregator(thresholdKm, options, true);
+            fanOut(new TimedIterator<>(reader, metrics::recordXmlParse), aggregator, listener, prefilter(options), priority,
+                    true);
+            return aggregator.toResponse();
+        }
+    }
+
+    /**
+     * Hands every in-range employee to {@code withinRangeSink} as soon as its lookup resolves, instead of
+     * collecting them, and returns the summary once the whole roster is processed. The sink is called
+     * concurrently from the lookup threads.
+     */
+    public EmployeeProximitySummary streamEmployeeProximity(InputStream inputStream, Consumer<Employee> withinRangeSink) {
+        try (EmployeeXmlReader reader = new EmployeeXmlReader(inputStream)) {
+            ProximityAggregator aggregator = new ProximityAggregator(thresholdKm, AggregationOptions.DEFAULT, false);
+            fanOut(new TimedIterator<>(reader, metrics::recordXmlParse), aggregator, new ProximityListener() {
+                @Override
+                public void onEmployeeResolved(Employee employee, boolean withinRange) {
+                    if (withinRange) {
+                        withinRangeSink.accept(employee);
+                    }
+                }
+            }, prefilter(AggregationOptions.DEFAULT), ProcessingPriority.NORMAL, true);
+            return aggregator.toSummary();
+        }
+    }
+
+    /**
+     * Resolves only the location of every employee, without any distance from the HQ, for callers that
+     * compute distances from their own origins. Each located employee is handed to the listener; the
+     * employee's {@code distanceFromHQ} is then only the great-circle distance. Nothing is recorded in the
+     * snapshot or the store, since neither holds entries without an HQ road distance.
+     */
+    public void resolveLocations(InputStream inputStream, ProcessingPriority priority, ProximityListener listener) {
+        try (EmployeeXmlReader reader = new EmployeeXmlReader(inputStream)) {
+            ProximityAggregator aggregator = new ProximityAggregator(thresholdKm, AggregationOptions.DEFAULT, false);
+            fanOut(new TimedIterator<>(reader, metrics::recordXmlParse), aggregator, listener, HaversinePrefilter.DISABLED,
+                    priority, false);
+        }
+    }
+
+    public List<Employee> parseEmployeesFromXml(InputStream inputStream) {
+        long start = System.nanoTime();
+        List<Employee> employees = new ArrayList<>();
+        try (EmployeeXmlReader reader = new EmployeeXmlReader(inputStream)) {
+            reader.forEachRemaining(employees::add);
+        }
+        metrics.recordXmlParse(System.nanoTime() - start);
+        return employees;
     }
 
     public Employee updateEmployeeLocation(Employee employee) {
+        return updateEmployeeLocation(employee, null, HaversinePrefilter.DISABLED, true).employee();
+    }
+
+    /**
+     * Resolves the employee's distance from a location that was already fetched in bulk, or looks the
+     * location up on its own when {@code prefetched} is null. The Google call is skipped when the prefilter
+     * rules the employee out or no HQ distance is wanted; that result, like a Haversine fallback after Google
+     * failed, is marked as estimated.
+     */
+    private Resolution updateEmployeeLocation(Employee employee, LocationResponse prefetched, HaversinePrefilter prefilter,
+                                              boolean hqDistance) {
         try {
-            LocationResponse locationResponse = locationClient.getLocation(employee.id());
+            LocationResponse locationResponse = prefetched != null
+                    ? prefetched
+                    : metrics.locationLookup().record(() -> locationClient.getLocation(employee.id()));
             if (locationResponse != null && locationResponse.getCoordinates() != null) {
                 double lat = locationResponse.getCoordinates().getLatitude();
                 double lon = locationResponse.getCoordinates().getLongitude();
                 double distance;
-                try {
-                    distance = googleDistanceClient.getDistance(hqLat, hqLon, lat, lon);
-                    log.debug("Calculated distance using Google API for employee {}: {}", employee.id(), distance);
-                } catch (Exception e) {
+                boolean estimated = false;
+                double greatCircle = prefilter.isEnabled() ? calculateDistance(hqLat, hqLon, lat, lon) : Double.NaN;
+                if (!hqDistance) {
                     distance = calculateDistance(hqLat, hqLon, lat, lon);
-                    log.warn("Google API failed for employee {}. Falling back to Haversine formula. Calculated distance: {}",
-                            employee.id(), distance, e);
+                    estimated = true;
+                } else if (!prefilter.needsRoadDistance(greatCircle)) {
+                    distance = greatCircle;
+                    estimated = true;
+                    metrics.recordDistanceSkipped();
+                    log.debug("Skipped Google API for employee {}, great-circle distance {} rules it out", employee.id(), distance);
+                } else {
+                    distance = roadDistance(employee, lat, lon);
+                    if (Double.isNaN(distance)) {
+                        distance = calculateDistance(hqLat, hqLon, lat, lon);
+                        estimated = true;
+                        metrics.recordHaversineFallback();
+                        log.warn("Google API failed for employee {}. Falling back to Haversine formula. Calculated distance: {}",
+                                employee.id(), distance);
+                    }
                 }
-                return Employee.builder()
+                return new Resolution(Employee.builder()
                         .id(employee.id())
                         .firstName(employee.firstName())
                         .lastName(employee.lastName())
@@ -114,51 +175,217 @@ public class EmployeeService {
                         .latitude(lat)
                         .longitude(lon)
                         .distanceFromHQ(distance)
-                        .build();
+                        .build(), estimated);
             }
         } catch (Exception ex) {
+            metrics.recordLocationFailure();
             log.error("Exception fetching location for employee {}: {}", employee.id(), ex.getMessage(), ex);
         }
-        return employee;
+        return new Resolution(employee, false);
+    }
+
+    /**
+     * Returns the Google road distance, or {@link Double#NaN} when Google failed or the circuit breaker
+     * short-circuited the call.
+     */
+    private double roadDistance(Employee employee, double lat, double lon) {
+        try {
+            double distance = metrics.distanceLookup().record(() -> distanceBatcher.getDistance(hqLat, hqLon, lat, lon).join());
+            log.debug("Calculated distance using Google API for employee {}: {}", employee.id(), distance);
+            return distance;
+        } catch (Exception e) {
+            log.debug("Google API lookup failed for employee {}", employee.id(), e);
+            return Double.NaN;
+        }
+    }
+
+    private HaversinePrefilter prefilter(AggregationOptions options) {
+        return prefilterEnabled && options.topK() == 0 && options.histogramBucketKm() == null
+                ? new HaversinePrefilter(true, thresholdKm, maxDetourFactor)
+                : HaversinePrefilter.DISABLED;
     }
 
     public EmployeeProximityResponse processEmployeesIncrementally(List<Employee> employees) {
-        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            AtomicReference<Employee> furthestEmployee = new AtomicReference<>(null);
-            List<Employee> withinRange = Collections.synchronizedList(new ArrayList<>());
-
-            List<CompletableFuture<Void>> futures = employees.stream()
-                    .map(employee -> CompletableFuture
-                            .supplyAsync(() -> updateEmployeeLocation(employee), executor)
-                            .thenAccept(updatedEmployee -> {
-                                if (updatedEmployee.distanceFromHQ() != null &&
-                                        updatedEmployee.distanceFromHQ() <= thresholdKm) {
-                                    withinRange.add(updatedEmployee);
-                                    log.debug("Employee {} is within threshold", updatedEmployee.id());
-                                }
-                                furthestEmployee.updateAndGet(current -> {
-                                    if (current == null ||
-                                            (updatedEmployee.distanceFromHQ() != null &&
-                                                    (current.distanceFromHQ() == null ||
-                                                            updatedEmployee.distanceFromHQ() > current.distanceFromHQ()))) {
-                                        log.debug("Employee {} is now the furthest", updatedEmployee.id());
-                                        return updatedEmployee;
-                                    }
-                                    return current;
-                                });
-                            }))
-                    .toList();
-
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-
-            log.info("Processed {} employees: {} within range, furthest employee is {}",
-                    employees.size(), withinRange.size(), furthestEmployee.get() != null ? furthestEmployee.get().firstName() : "none");
-
-            return EmployeeProximityResponse.builder()
-                    .withinRange(withinRange)
-                    .furthest(furthestEmployee.get())
-                    .build();
+        ProximityAggregator aggregator = new ProximityAggregator(thresholdKm, AggregationOptions.DEFAULT, true);
+        fanOut(employees.iterator(), aggregator, ProximityListener.NONE, prefilter(AggregationOptions.DEFAULT),
+                ProcessingPriority.NORMAL, true);
+        return aggregator.toResponse();
+    }
+
+    /**
+     * Starts the location lookups as soon as the iterator yields employees, so a streaming source overlaps
+     * parsing with the upstream calls instead of materializing the whole roster first. Employees are grouped
+     * into chunks that share one bulk location request; each employee of a chunk then resolves its distance
+     * on its own virtual thread. Both run as tasks of this upload's {@link ResolutionScheduler} lane, so
+     * concurrent uploads share the global budget by priority. Employees unchanged since the last completed
+     * upload are taken from the {@link RosterSnapshot} without any lookup, so a re-upload only pays for what
+     * changed, and employees resolved before a restart come from the {@link LocationStore} as long as they are
+     * within the snapshot's max age. Their distances also raise the prefilter's furthest bound. Without
+     * {@code hqDistance} only the locations are resolved and the snapshot is left as it was.
+     */
+    private void fanOut(Iterator<Employee> employees, ProximityAggregator aggregator, ProximityListener listener,
+                        HaversinePrefilter prefilter, ProcessingPriority priority, boolean hqDistance) {
+        int submitted = 0;
+        int reused = 0;
+        int restored = 0;
+        long start = System.nanoTime();
+        int chunkSize = Math.max(1, locationChunkSize);
+        RosterSnapshot.Generation snapshot = rosterSnapshot.begin();
+
+        try (ResolutionScheduler.Lane lane = resolutionScheduler.openLane(priority.name().toLowerCase(Locale.ROOT),
+                priority.weight())) {
+            List<Employee> chunk = new ArrayList<>(chunkSize);
+            try {
+                // a failed task, such as a write to a client that went away, cancels the lane
+                while (!lane.isCancelled() && employees.hasNext()) {
+                    Employee employee = employees.next();
+                    listener.onEmployeeRead(employee);
+                    submitted++;
+                    int previous = snapshot.reuse(employee);
+                    if (previous >= 0) {
+                        reused++;
+                        prefilter.observe(snapshot.distance(previous));
+                        boolean withinRange = aggregator.add(snapshot.distance(previous), () -> snapshot.view(previous));
+                        if (listener != ProximityListener.NONE) {
+                            listener.onEmployeeResolved(snapshot.view(previous), withinRange);
+                        }
+                        continue;
+                    }
+                    Employee stored = restoreFromStore(employee, snapshot);
+                    if (stored != null) {
+                        restored++;
+                        prefilter.observe(stored.distanceFromHQ());
+                        listener.onEmployeeResolved(stored, aggregator.add(stored));
+                        continue;
+                    }
+                    chunk.add(employee);
+                    if (chunk.size() >= chunkSize) {
+                        submitChunk(lane, chunk, aggregator, listener, snapshot, prefilter, hqDistance);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    submitChunk(lane, chunk, aggregator, listener, snapshot, prefilter, hqDistance);
+                }
+            } catch (RuntimeException e) {
+                lane.cancel(e);
+                throw e;
+            }
+        } finally {
+            metrics.fanOut().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (hqDistance) {
+            snapshot.commit();
+        }
+        metrics.recordSnapshotReuse(reused);
+
+        EmployeeProximitySummary summary = aggregator.toSummary();
+        log.info("Processed {} employees ({} unchanged since the last upload, {} from the store): {} within range, furthest employee is {}",
+                submitted, reused, restored, summary.withinRangeCount(), summary.furthest() != null ? summary.furthest().firstName() : "none");
+    }
+
+    /**
+     * Returns the employee as stored before a restart, and keeps it in the snapshot with its original age, or
+     * null when nothing is stored or the entry is older than the snapshot's max age.
+     */
+    private Employee restoreFromStore(Employee employee, RosterSnapshot.Generation snapshot) {
+        Optional<StoredLocation> stored = locationStore.get(employee.id());
+        if (stored.isEmpty()) {
+            return null;
+        }
+        Employee restored = Employee.builder()
+                .id(employee.id())
+                .firstName(employee.firstName())
+                .lastName(employee.lastName())
+                .email(employee.email())
+                .latitude(stored.get().latitude())
+                .longitude(stored.get().longitude())
+                .distanceFromHQ(stored.get().distanceKm())
+                .build();
+        long ageMillis = Math.max(0, System.currentTimeMillis() - stored.get().storedAtMillis());
+        return snapshot.restore(employee, restored, TimeUnit.MILLISECONDS.toNanos(ageMillis)) ? restored : null;
+    }
+
+    private void submitChunk(ResolutionScheduler.Lane lane, List<Employee> chunk, ProximityAggregator aggregator,
+                             ProximityListener listener, RosterSnapshot.Generation snapshot, HaversinePrefilter prefilter,
+                             boolean hqDistance) {
+        if (chunk.size() == 1) {
+            Employee employee = chunk.getFirst();
+            lane.submit(() -> resolve(employee, null, aggregator, listener, snapshot, prefilter, hqDistance));
+            return;
+        }
+        lane.submit(() -> {
+            Map<String, LocationResponse> locations = prefetchLocations(chunk);
+            if (prefilter.isEnabled()) {
+                locations.values().stream()
+                        .filter(location -> location.getCoordinates() != null)
+                        .forEach(location -> prefilter.observe(calculateDistance(hqLat, hqLon,
+                                location.getCoordinates().getLatitude(), location.getCoordinates().getLongitude())));
+            }
+            for (Employee employee : chunk) {
+                LocationResponse location = employee.id() != null ? locations.get(employee.id()) : null;
+                if (location == null) {
+                    unresolved(employee, aggregator, listener);
+                } else {
+                    lane.submit(() -> resolve(employee, location, aggregator, listener, snapshot, prefilter, hqDistance));
+                }
+            }
+        });
+    }
+
+    /**
+     * {@link LocationClient#getLocations} already looks up one by one every id the bulk call did not return,
+     * so an employee missing from the result, or every employee when even that failed, could not be located
+     * and is not looked up again.
+     */
+    private Map<String, LocationResponse> prefetchLocations(List<Employee> chunk) {
+        List<String> ids = chunk.stream().map(Employee::id).filter(Objects::nonNull).distinct().toList();
+        try {
+            return locationClient.getLocations(ids);
+        } catch (Exception e) {
+            log.warn("Bulk location lookup for {} employees failed: {}", ids.size(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * Passes on an employee the location service could not place, without coordinates.
+     */
+    private void unresolved(Employee employee, ProximityAggregator aggregator, ProximityListener listener) {
+        metrics.recordLocationFailure();
+        log.warn("No location found for employee {}", employee.id());
+        listener.onEmployeeResolved(employee, aggregator.add(employee));
+    }
+
+    private void resolve(Employee employee, LocationResponse prefetched, ProximityAggregator aggregator,
+                         ProximityListener listener, RosterSnapshot.Generation snapshot, HaversinePrefilter prefilter,
+                         boolean hqDistance) {
+        metrics.lookupStarted();
+        try {
+            Resolution resolution = updateEmployeeLocation(employee, prefetched, prefilter, hqDistance);
+            Employee updatedEmployee = resolution.employee();
+            // estimated distances are kept out of the snapshot and the store, so later uploads that need
+            // exact distances do not pick them up and a Google outage does not outlive itself
+            if (!resolution.estimated()) {
+                snapshot.record(employee, updatedEmployee);
+            }
+            if (!resolution.estimated() && updatedEmployee.latitude() != null && updatedEmployee.distanceFromHQ() != null) {
+                locationStore.put(updatedEmployee.id(), updatedEmployee.latitude(), updatedEmployee.longitude(),
+                        updatedEmployee.distanceFromHQ());
+            }
+            boolean withinRange = aggregator.add(updatedEmployee);
+            if (withinRange) {
+                log.debug("Employee {} is within threshold", updatedEmployee.id());
+            }
+            listener.onEmployeeResolved(updatedEmployee, withinRange);
+        } finally {
+            metrics.lookupFinished();
         }
     }
 
+    /**
+     * A resolved employee, {@code estimated} when its distance is the great-circle distance instead of a road
+     * distance, either because the prefilter skipped Google or because Google failed.
+     */
+    private record Resolution(Employee employee, boolean estimated) {}
 }
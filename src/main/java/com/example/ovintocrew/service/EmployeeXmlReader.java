@@ -0,0 +1,134 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.model.dto.Employee;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Pull-parses {@code <Employee>} elements one at a time, so callers can start working on the first
+ * employees while the rest of the document is still being read.
+ */
+class EmployeeXmlReader implements Iterator<Employee>, AutoCloseable {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private final XMLStreamReader reader;
+    private Employee next;
+
+    EmployeeXmlReader(InputStream inputStream) {
+        try {
+            this.reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Invalid employee XML: " + e.getMessage(), e);
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Employee next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Employee employee = next;
+        next = null;
+        return employee;
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (XMLStreamException ignored) {
+            // nothing left to release
+        }
+    }
+
+    private Employee readNext() {
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "Employee".equals(reader.getLocalName())) {
+                    return readEmployee();
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Invalid employee XML: " + e.getMessage(), e);
+        }
+    }
+
+    private Employee readEmployee() throws XMLStreamException {
+        String id = reader.getAttributeValue(null, "id");
+        String firstName = null;
+        String lastName = null;
+        String email = null;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if (isField(name)) {
+                    String text = readText();
+                    firstName = "FirstName".equals(name) && firstName == null ? text : firstName;
+                    lastName = "LastName".equals(name) && lastName == null ? text : lastName;
+                    email = "Email".equals(name) && email == null ? text : email;
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        return Employee.builder()
+                .id(id != null ? id : "")
+                .firstName(firstName != null ? firstName : "")
+                .lastName(lastName != null ? lastName : "")
+                .email(email != null ? email : "")
+                .build();
+    }
+
+    private static boolean isField(String name) {
+        return "FirstName".equals(name) || "LastName".equals(name) || "Email".equals(name);
+    }
+
+    /**
+     * Reads the text content of the current element, including nested elements, and leaves the reader on its
+     * end tag.
+     */
+    private String readText() throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                        text.append(reader.getText());
+                case XMLStreamConstants.START_ELEMENT -> depth++;
+                case XMLStreamConstants.END_ELEMENT -> depth--;
+                default -> {
+                }
+            }
+        }
+        return text.toString();
+    }
+}
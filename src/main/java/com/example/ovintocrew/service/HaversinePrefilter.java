@@ -0,0 +1,53 @@
+package com.example.ovintocrew.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides per upload which employees need a paid road distance. Road distance is never shorter than the
+ * great-circle distance, so an employee whose great-circle distance is over the threshold can never be within
+ * range; and assuming road distance is at most {@code maxDetourFactor} times the great-circle distance, an
+ * employee can only be the furthest if that bound reaches the largest great-circle distance seen so far.
+ * Everyone else keeps the Haversine distance.
+ */
+final class HaversinePrefilter {
+
+    static final HaversinePrefilter DISABLED = new HaversinePrefilter(false, 0, 1);
+
+    private final boolean enabled;
+    private final double thresholdKm;
+    private final double maxDetourFactor;
+    /**
+     * Bits of the largest great-circle distance seen; non-negative doubles order like their bits.
+     */
+    private final AtomicLong furthestLowerBound = new AtomicLong(Double.doubleToLongBits(0.0));
+
+    HaversinePrefilter(boolean enabled, double thresholdKm, double maxDetourFactor) {
+        this.enabled = enabled;
+        this.thresholdKm = thresholdKm;
+        this.maxDetourFactor = Math.max(1.0, maxDetourFactor);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Raises the furthest bound without deciding anything, so a chunk's distances can all be seen before any
+     * of its employees is decided.
+     */
+    void observe(double greatCircleKm) {
+        if (enabled && greatCircleKm >= 0) {
+            long bits = Double.doubleToLongBits(greatCircleKm);
+            furthestLowerBound.accumulateAndGet(bits, Math::max);
+        }
+    }
+
+    boolean needsRoadDistance(double greatCircleKm) {
+        if (!enabled) {
+            return true;
+        }
+        observe(greatCircleKm);
+        return greatCircleKm <= thresholdKm
+                || greatCircleKm * maxDetourFactor >= Double.longBitsToDouble(furthestLowerBound.get());
+    }
+}
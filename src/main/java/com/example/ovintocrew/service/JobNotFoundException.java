@@ -0,0 +1,14 @@
+package com.example.ovintocrew.service;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Thrown by {@link ProximityJobService} for a job id it does not know, either because it never existed or
+ * because the job's retention has passed.
+ */
+public class JobNotFoundException extends NoSuchElementException {
+
+    public JobNotFoundException(String jobId) {
+        super("Unknown job " + jobId);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.ovintocrew.service;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown by {@link ProximityJobService} when its job queue is full and a new job cannot be accepted.
+ */
+public class JobQueueFullException extends RejectedExecutionException {
+
+    public JobQueueFullException(Throwable cause) {
+        super("Too many pending jobs", cause);
+    }
+}
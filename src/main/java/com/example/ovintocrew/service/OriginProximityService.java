@@ -0,0 +1,193 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.Util.DistanceUtil;
+import com.example.ovintocrew.client.GoogleDistanceClient;
+import com.example.ovintocrew.config.SitesProperties;
+import com.example.ovintocrew.metrics.ProximityMetrics;
+import com.example.ovintocrew.model.dto.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Answers "who is within 10, 30 and 50 km of origins A and B" from one pipeline run: the roster's locations
+ * are resolved once, without any HQ road distance, the distances from every origin are computed in one pass (one Distance Matrix request
+ * per block of origins and destinations, or Haversine over primitive columns), and each origin's employees
+ * are sorted once so every threshold is a prefix of the same list.
+ */
+@Service
+@Slf4j
+public class OriginProximityService {
+
+    private final EmployeeService employeeService;
+    private final GoogleDistanceClient googleDistanceClient;
+    private final ProximityMetrics metrics;
+    private final List<Site> sites;
+    private final double defaultThresholdKm;
+
+    public OriginProximityService(EmployeeService employeeService, GoogleDistanceClient googleDistanceClient,
+                                  ProximityMetrics metrics, SitesProperties sitesProperties,
+                                  @Value("${employee.threshold.km}") double defaultThresholdKm) {
+        this.employeeService = employeeService;
+        this.googleDistanceClient = googleDistanceClient;
+        this.metrics = metrics;
+        this.sites = sitesProperties.sites();
+        this.defaultThresholdKm = defaultThresholdKm;
+    }
+
+    /**
+     * Resolves the roster and matches it against every origin and threshold.
+     *
+     * @param origins       configured site names or {@code lat,lon} pairs, all configured sites when empty
+     * @param thresholdsKm  radii in km, the configured threshold when empty
+     * @param roadDistances whether to use Google road distances, falling back to Haversine per element, or
+     *                      Haversine only
+     */
+    public OriginProximityResponse getOriginProximity(InputStream inputStream, List<String> origins,
+                                                      List<Double> thresholdsKm, boolean roadDistances) {
+        List<Site> selectedOrigins = resolveOrigins(origins);
+        List<Double> thresholds = thresholdsKm == null || thresholdsKm.isEmpty() ? List.of(defaultThresholdKm) : thresholdsKm;
+        for (Double threshold : thresholds) {
+            if (threshold == null || !(threshold >= 0)) {
+                throw new IllegalArgumentException("thresholdKm must not be negative");
+            }
+        }
+
+        AtomicInteger processed = new AtomicInteger();
+        List<Employee> located = Collections.synchronizedList(new ArrayList<>());
+        employeeService.resolveLocations(inputStream, ProcessingPriority.NORMAL, new ProximityListener() {
+            @Override
+            public void onEmployeeRead(Employee employee) {
+                processed.incrementAndGet();
+            }
+
+            @Override
+            public void onEmployeeResolved(Employee employee, boolean withinRange) {
+                if (employee.latitude() != null && employee.longitude() != null) {
+                    located.add(employee);
+                }
+            }
+        });
+
+        double[] lats = new double[located.size()];
+        double[] lons = new double[located.size()];
+        for (int i = 0; i < located.size(); i++) {
+            lats[i] = located.get(i).latitude();
+            lons[i] = located.get(i).longitude();
+        }
+        double[][] distances = roadDistances
+                ? roadDistances(selectedOrigins, lats, lons)
+                : haversineDistances(selectedOrigins, lats, lons);
+        log.info("Matched {} located employees against {} origins and {} thresholds", located.size(),
+                selectedOrigins.size(), thresholds.size());
+
+        List<OriginProximity> results = new ArrayList<>(selectedOrigins.size());
+        for (int o = 0; o < selectedOrigins.size(); o++) {
+            results.add(originProximity(selectedOrigins.get(o), thresholds, located, distances[o]));
+        }
+        return OriginProximityResponse.builder()
+                .processed(processed.get())
+                .roadDistances(roadDistances)
+                .origins(results)
+                .build();
+    }
+
+    private List<Site> resolveOrigins(List<String> origins) {
+        if (origins == null || origins.isEmpty()) {
+            if (sites.isEmpty()) {
+                throw new IllegalArgumentException("No sites configured");
+            }
+            return sites;
+        }
+        List<Site> resolved = new ArrayList<>(origins.size());
+        for (String origin : origins) {
+            String name = origin.strip();
+            Optional<Site> site = sites.stream().filter(candidate -> candidate.name().equals(name)).findFirst();
+            resolved.add(site.orElseGet(() -> parseCoordinates(name)));
+        }
+        return resolved;
+    }
+
+    private static Site parseCoordinates(String origin) {
+        String[] parts = origin.split(",");
+        try {
+            if (parts.length == 2) {
+                double lat = Double.parseDouble(parts[0].strip());
+                double lon = Double.parseDouble(parts[1].strip());
+                if (Math.abs(lat) <= 90 && Math.abs(lon) <= 180) {
+                    return new Site(origin, lat, lon);
+                }
+            }
+        } catch (NumberFormatException ignored) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Unknown origin " + origin);
+    }
+
+    private double[][] roadDistances(List<Site> origins, double[] lats, double[] lons) {
+        List<Coordinates> originCoordinates = origins.stream()
+                .map(origin -> new Coordinates(origin.latitude(), origin.longitude()))
+                .toList();
+        List<Coordinates> destinations = new ArrayList<>(lats.length);
+        for (int i = 0; i < lats.length; i++) {
+            destinations.add(new Coordinates(lats[i], lons[i]));
+        }
+        double[][] distances;
+        try {
+            distances = googleDistanceClient.getDistanceMatrixAsync(originCoordinates, destinations).join();
+        } catch (Exception e) {
+            log.warn("Google distance matrix for {} origins failed, falling back to Haversine: {}", origins.size(), e.getMessage());
+            distances = new double[origins.size()][lats.length];
+            for (double[] row : distances) {
+                Arrays.fill(row, Double.NaN);
+            }
+        }
+
+        double[] fallback = new double[lats.length];
+        for (int o = 0; o < origins.size(); o++) {
+            boolean computed = false;
+            for (int i = 0; i < lats.length; i++) {
+                if (Double.isNaN(distances[o][i])) {
+                    if (!computed) {
+                        DistanceUtil.calculateDistances(origins.get(o).latitude(), origins.get(o).longitude(), lats, lons, fallback);
+                        computed = true;
+                    }
+                    distances[o][i] = fallback[i];
+                    metrics.recordHaversineFallback();
+                }
+            }
+        }
+        return distances;
+    }
+
+    private static double[][] haversineDistances(List<Site> origins, double[] lats, double[] lons) {
+        double[][] distances = new double[origins.size()][lats.length];
+        for (int o = 0; o < origins.size(); o++) {
+            DistanceUtil.calculateDistances(origins.get(o).latitude(), origins.get(o).longitude(), lats, lons, distances[o]);
+        }
+        return distances;
+    }
+
+    private static OriginProximity originProximity(Site origin, List<Double> thresholds, List<Employee> located,
+                                                   double[] distances) {
+        List<EmployeeDistance> byDistance = new ArrayList<>(located.size());
+        for (int i = 0; i < distances.length; i++) {
+            byDistance.add(new EmployeeDistance(located.get(i), distances[i]));
+        }
+        byDistance.sort(Comparator.comparingDouble(EmployeeDistance::distanceKm));
+
+        List<ThresholdProximity> withinThresholds = new ArrayList<>(thresholds.size());
+        for (double threshold : thresholds) {
+            int end = 0;
+            while (end < byDistance.size() && byDistance.get(end).distanceKm() <= threshold) {
+                end++;
+            }
+            withinThresholds.add(new ThresholdProximity(threshold, List.copyOf(byDistance.subList(0, end))));
+        }
+        return new OriginProximity(origin, withinThresholds, byDistance.isEmpty() ? null : byDistance.getLast());
+    }
+}
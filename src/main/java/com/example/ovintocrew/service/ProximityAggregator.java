@@ -0,0 +1,219 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.model.dto.AggregationOptions;
+import com.example.ovintocrew.model.dto.DistanceBucket;
+import com.example.ovintocrew.model.dto.Employee;
+import com.example.ovintocrew.model.dto.EmployeeProximityResponse;
+import com.example.ovintocrew.model.dto.EmployeeProximitySummary;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Collects resolved employees into striped accumulators, each with its own lock, and merges them once the
+ * fan-out is done. Threads pick a stripe by id, so completions on different cores rarely meet on the same lock.
+ */
+class ProximityAggregator {
+
+    private static final Comparator<Employee> BY_DISTANCE = Comparator.comparingDouble(Employee::distanceFromHQ);
+
+    private final double thresholdKm;
+    private final AggregationOptions options;
+    private final boolean collectWithinRange;
+    private final Stripe[] stripes;
+
+    ProximityAggregator(double thresholdKm, AggregationOptions options, boolean collectWithinRange) {
+        this.thresholdKm = thresholdKm;
+        this.options = options;
+        this.collectWithinRange = collectWithinRange;
+        this.stripes = new Stripe[Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Records a resolved employee and returns whether it lies within the threshold.
+     */
+    boolean add(Employee employee) {
+        return add(employee.distanceFromHQ() != null ? employee.distanceFromHQ() : Double.NaN, () -> employee);
+    }
+
+    /**
+     * Records an employee by its distance, {@link Double#NaN} when unresolved, and only materializes it through
+     * {@code view} when it is kept: within range, the furthest so far or in a top-k ranking.
+     */
+    boolean add(double distanceKm, Supplier<Employee> view) {
+        boolean withinRange = distanceKm <= thresholdKm;
+        Stripe stripe = stripes[(int) Thread.currentThread().threadId() & (stripes.length - 1)];
+        stripe.lock.lock();
+        try {
+            stripe.add(distanceKm, new Lazy(view), withinRange);
+        } finally {
+            stripe.lock.unlock();
+        }
+        return withinRange;
+    }
+
+    EmployeeProximitySummary toSummary() {
+        Merged merged = merge(false);
+        return new EmployeeProximitySummary(merged.processed, merged.withinRangeCount, merged.furthest);
+    }
+
+    EmployeeProximityResponse toResponse() {
+        Merged merged = merge(true);
+        if (options.sortWithinRange()) {
+            merged.withinRange.sort(BY_DISTANCE);
+        }
+        return EmployeeProximityResponse.builder()
+                .withinRange(merged.withinRange)
+                .furthest(merged.furthest)
+                .topNearest(options.topK() > 0 ? sorted(merged.nearest, BY_DISTANCE) : null)
+                .topFurthest(options.topK() > 0 ? sorted(merged.furthestRanking, BY_DISTANCE.reversed()) : null)
+                .distanceHistogram(options.histogramBucketKm() != null ? histogram(merged.histogram) : null)
+                .build();
+    }
+
+    private Merged merge(boolean withEmployees) {
+        Merged merged = new Merged();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                merged.processed += stripe.processed;
+                merged.withinRangeCount += stripe.withinRangeCount;
+                if (stripe.furthest != null) {
+                    merged.furthest = furthestOf(merged.furthest, stripe.furthest);
+                }
+                if (!withEmployees) {
+                    continue;
+                }
+                merged.withinRange.addAll(stripe.withinRange);
+                stripe.nearest.forEach(employee -> offer(merged.nearest, employee));
+                stripe.furthestRanking.forEach(employee -> offer(merged.furthestRanking, employee));
+                if (merged.histogram.length < stripe.histogram.length) {
+                    merged.histogram = Arrays.copyOf(merged.histogram, stripe.histogram.length);
+                }
+                for (int i = 0; i < stripe.histogram.length; i++) {
+                    merged.histogram[i] += stripe.histogram[i];
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return merged;
+    }
+
+    private List<DistanceBucket> histogram(long[] counts) {
+        double width = options.histogramBucketKm();
+        int length = counts.length;
+        while (length > 0 && counts[length - 1] == 0) {
+            length--;
+        }
+        List<DistanceBucket> buckets = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            buckets.add(new DistanceBucket(i * width, (i + 1) * width, counts[i]));
+        }
+        return buckets;
+    }
+
+    private static List<Employee> sorted(Collection<Employee> employees, Comparator<Employee> order) {
+        List<Employee> list = new ArrayList<>(employees);
+        list.sort(order);
+        return list;
+    }
+
+    /**
+     * Keeps a bounded heap whose head is the entry to evict next.
+     */
+    private void offer(PriorityQueue<Employee> heap, Employee employee) {
+        heap.offer(employee);
+        if (heap.size() > options.topK()) {
+            heap.poll();
+        }
+    }
+
+    private static Employee furthestOf(Employee current, Employee candidate) {
+        if (current == null ||
+                (candidate.distanceFromHQ() != null &&
+                        (current.distanceFromHQ() == null ||
+                                candidate.distanceFromHQ() > current.distanceFromHQ()))) {
+            return candidate;
+        }
+        return current;
+    }
+
+    private final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<Employee> withinRange = new ArrayList<>();
+        private final PriorityQueue<Employee> nearest = new PriorityQueue<>(BY_DISTANCE.reversed());
+        private final PriorityQueue<Employee> furthestRanking = new PriorityQueue<>(BY_DISTANCE);
+        private long[] histogram = new long[0];
+        private int processed;
+        private int withinRangeCount;
+        private Employee furthest;
+        private double furthestDistance = Double.NaN;
+
+        private void add(double distanceKm, Lazy employee, boolean isWithinRange) {
+            processed++;
+            if (furthest == null || distanceKm > furthestDistance || Double.isNaN(furthestDistance) && !Double.isNaN(distanceKm)) {
+                furthest = employee.get();
+                furthestDistance = distanceKm;
+            }
+            if (isWithinRange) {
+                withinRangeCount++;
+                if (collectWithinRange) {
+                    withinRange.add(employee.get());
+                }
+            }
+            if (Double.isNaN(distanceKm)) {
+                return;
+            }
+            if (options.topK() > 0) {
+                if (nearest.size() < options.topK() || distanceKm < nearest.peek().distanceFromHQ()) {
+                    offer(nearest, employee.get());
+                }
+                if (furthestRanking.size() < options.topK() || distanceKm > furthestRanking.peek().distanceFromHQ()) {
+                    offer(furthestRanking, employee.get());
+                }
+            }
+            if (options.histogramBucketKm() != null) {
+                int bucket = (int) Math.min(Integer.MAX_VALUE - 1,
+                        Math.max(0, distanceKm / options.histogramBucketKm()));
+                if (bucket >= histogram.length) {
+                    histogram = Arrays.copyOf(histogram, Math.max(bucket + 1, histogram.length * 2));
+                }
+                histogram[bucket]++;
+            }
+        }
+    }
+
+    /**
+     * Materializes the employee at most once per {@link #add}.
+     */
+    private static final class Lazy {
+        private final Supplier<Employee> view;
+        private Employee employee;
+
+        private Lazy(Supplier<Employee> view) {
+            this.view = view;
+        }
+
+        private Employee get() {
+            if (employee == null) {
+                employee = view.get();
+            }
+            return employee;
+        }
+    }
+
+    private final class Merged {
+        private final List<Employee> withinRange = new ArrayList<>();
+        private final PriorityQueue<Employee> nearest = new PriorityQueue<>(BY_DISTANCE.reversed());
+        private final PriorityQueue<Employee> furthestRanking = new PriorityQueue<>(BY_DISTANCE);
+        private long[] histogram = new long[0];
+        private int processed;
+        private int withinRangeCount;
+        private Employee furthest;
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.model.dto.AggregationOptions;
+import com.example.ovintocrew.model.dto.Employee;
+import com.example.ovintocrew.model.dto.EmployeeProximityResponse;
+import com.example.ovintocrew.model.dto.ProcessingPriority;
+import com.example.ovintocrew.model.dto.ProximityJobStatus;
+import com.example.ovintocrew.model.dto.ProximityJobStatus.State;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs roster uploads as background jobs so the HTTP request only has to upload the XML. Jobs run on a
+ * bounded pool with a bounded queue; a full queue rejects new jobs instead of piling them up. Uploads are
+ * spooled up to a maximum decompressed size. Finished jobs are kept for the configured retention and then
+ * dropped.
+ */
+@Service
+@Slf4j
+public class ProximityJobService implements DisposableBean {
+
+    private static final int SPOOL_BUFFER_SIZE = 64 * 1024;
+
+    private final EmployeeService employeeService;
+    private final Duration retention;
+    private final Duration maxWait;
+    private final long maxUploadBytes;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService sweeper;
+    private final Map<String, ProximityJob> jobs = new ConcurrentHashMap<>();
+
+    public ProximityJobService(
+            EmployeeService employeeService,
+            @Value("${employee.jobs.parallelism:2}") int parallelism,
+            @Value("${employee.jobs.queue-capacity:50}") int queueCapacity,
+            @Value("${employee.jobs.retention:PT1H}") Duration retention,
+            @Value("${employee.jobs.max-wait:PT55S}") Duration maxWait,
+            @Value("${employee.jobs.max-upload-size:512MB}") DataSize maxUploadSize) {
+        this.employeeService = employeeService;
+        this.retention = retention;
+        this.maxWait = maxWait;
+        this.maxUploadBytes = maxUploadSize.toBytes();
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("proximity-job-", 0).factory());
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("proximity-job-sweeper").daemon().factory());
+        long sweepMillis = Math.max(1, Math.min(retention.toMillis(), Duration.ofMinutes(1).toMillis()));
+        sweeper.scheduleWithFixedDelay(this::removeExpiredJobs, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Spools the upload to a temporary file and queues it. Jobs are bulk work, so callers usually pass
+     * {@link ProcessingPriority#LOW} to keep interactive uploads responsive.
+     *
+     * @throws JobQueueFullException when the job queue is full
+     * @throws UploadTooLargeException when the decompressed upload exceeds the configured maximum
+     */
+    public ProximityJobStatus submit(InputStream upload, AggregationOptions options, ProcessingPriority priority) throws IOException {
+        Path spool = Files.createTempFile("ovintocrew-job-", ".xml");
+        try {
+            spool(upload, spool);
+            ProximityJob job = new ProximityJob(UUID.randomUUID().toString());
+            jobs.put(job.id, job);
+            try {
+                executor.execute(new QueuedJob(job, spool, options, priority));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.id);
+                throw new JobQueueFullException(e);
+            }
+            log.info("Queued proximity job {}", job.id);
+            return job.status();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+    }
+
+    /**
+     * Copies the upload to the spool file, stopping as soon as it passes the maximum size.
+     */
+    private void spool(InputStream upload, Path spool) throws IOException {
+        try (OutputStream out = Files.newOutputStream(spool)) {
+            byte[] buffer = new byte[SPOOL_BUFFER_SIZE];
+            long total = 0;
+            for (int read; (read = upload.read(buffer)) >= 0; ) {
+                total += read;
+                if (total > maxUploadBytes) {
+                    throw new UploadTooLargeException(maxUploadBytes);
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    public ProximityJobStatus getStatus(String jobId) {
+        return find(jobId).status();
+    }
+
+    /**
+     * Completes with the job status once the job has finished or the wait (capped at the configured maximum)
+     * has elapsed, whichever comes first.
+     */
+    public CompletableFuture<ProximityJobStatus> awaitStatus(String jobId, Duration wait) {
+        ProximityJob job = find(jobId);
+        Duration cappedWait = wait.compareTo(maxWait) > 0 ? maxWait : wait;
+        if (cappedWait.isZero() || cappedWait.isNegative() || job.completion.isDone()) {
+            return CompletableFuture.completedFuture(job.status());
+        }
+        return job.completion
+                .handle((result, error) -> job.status())
+                .completeOnTimeout(null, cappedWait.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(status -> job.status());
+    }
+
+    private ProximityJob find(String jobId) {
+        ProximityJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new JobNotFoundException(jobId);
+        }
+        return job;
+    }
+
+    private void run(ProximityJob job, Path spool, AggregationOptions options, ProcessingPriority priority) {
+        job.state = State.RUNNING;
+        try (InputStream inputStream = Files.newInputStream(spool)) {
+            EmployeeProximityResponse response = employeeService.getEmployeeProximityResponse(inputStream, options, priority, job);
+            job.totalKnown = true;
+            job.result = response;
+            job.state = State.COMPLETED;
+            log.info("Proximity job {} completed: {} employees processed", job.id, job.processed.get());
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.state = State.FAILED;
+            log.error("Proximity job {} failed: {}", job.id, e.getMessage(), e);
+        } finally {
+            job.completedAt = Instant.now();
+            job.completion.complete(null);
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                log.warn("Could not delete spooled upload {}", spool, e);
+            }
+        }
+    }
+
+    private void removeExpiredJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+    }
+
+    /**
+     * Stops the pool. Running jobs are interrupted and clean up after themselves; jobs still queued never run,
+     * so they are failed here and their spooled uploads deleted.
+     */
+    @Override
+    public void destroy() {
+        sweeper.shutdownNow();
+        for (Runnable drained : executor.shutdownNow()) {
+            if (drained instanceof QueuedJob queued) {
+                queued.job.error = "Service shut down before the job started";
+                queued.job.state = State.FAILED;
+                queued.job.completedAt = Instant.now();
+                queued.job.completion.complete(null);
+                try {
+                    Files.deleteIfExists(queued.spool);
+                } catch (IOException e) {
+                    log.warn("Could not delete spooled upload {}", queued.spool, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * A job waiting in the pool's queue, kept as its own type so a shutdown can tell which spool it owns.
+     */
+    private final class QueuedJob implements Runnable {
+        private final ProximityJob job;
+        private final Path spool;
+        private final AggregationOptions options;
+        private final ProcessingPriority priority;
+
+        private QueuedJob(ProximityJob job, Path spool, AggregationOptions options, ProcessingPriority priority) {
+            this.job = job;
+            this.spool = spool;
+            this.options = options;
+            this.priority = priority;
+        }
+
+        @Override
+        public void run() {
+            ProximityJobService.this.run(job, spool, options, priority);
+        }
+    }
+
+    private static final class ProximityJob implements ProximityListener {
+        private final String id;
+        private final Instant submittedAt = Instant.now();
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger withinRange = new AtomicInteger();
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private volatile State state = State.QUEUED;
+        private volatile boolean totalKnown;
+        private volatile Instant completedAt;
+        private volatile String error;
+        private volatile EmployeeProximityResponse result;
+
+        private ProximityJob(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public void onEmployeeRead(Employee employee) {
+            total.incrementAndGet();
+        }
+
+        @Override
+        public void onEmployeeResolved(Employee employee, boolean withinRangeOfHq) {
+            processed.incrementAndGet();
+            if (withinRangeOfHq) {
+                withinRange.incrementAndGet();
+            }
+        }
+
+        private ProximityJobStatus status() {
+            return ProximityJobStatus.builder()
+                    .id(id)
+                    .state(state)
+                    .processed(processed.get())
+                    .total(total.get())
+                    .totalKnown(totalKnown)
+                    .withinRangeCount(withinRange.get())
+                    .submittedAt(submittedAt)
+                    .completedAt(completedAt)
+                    .error(error)
+                    .result(result)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.model.dto.Employee;
+
+/**
+ * Progress callbacks of a proximity run. Both methods can be called concurrently: employees are read on the
+ * submitting thread while lookups resolve on their own virtual threads.
+ */
+public interface ProximityListener {
+
+    ProximityListener NONE = new ProximityListener() {};
+
+    default void onEmployeeRead(Employee employee) {
+    }
+
+    default void onEmployeeResolved(Employee employee, boolean withinRange) {
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.ovintocrew.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the employee-resolution tasks of every concurrent upload under one global concurrency budget, with
+ * weighted fair queuing between uploads: each upload gets a {@link Lane}, and a free slot goes to the lane
+ * with the lowest virtual time, which advances by {@code 1 / weight} per task (stride scheduling). A
+ * 50-employee request next to a 100k-employee upload therefore waits for a share of the budget, not for the
+ * whole upload, while a lone upload still gets every slot.
+ * <p>
+ * Each lane queues at most {@code backlogPerSlot} tasks per slot of the budget; past that, the thread reading
+ * the upload blocks until the lane catches up, so memory stays flat however large the roster is. Tasks that
+ * submit further tasks to their own lane are never blocked, since they hold the slots the lane drains with.
+ */
+@Component
+@Slf4j
+public class ResolutionScheduler implements MeterBinder {
+
+    private static final ThreadLocal<Lane> RUNNING_LANE = new ThreadLocal<>();
+
+    private final int maxConcurrency;
+    private final int maxBacklog;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Lane> activeLanes = new ArrayList<>();
+    private double virtualTime;
+    private int running;
+    private int queued;
+
+    public ResolutionScheduler(
+            @Value("${employee.scheduler.max-concurrency:256}") int maxConcurrency,
+            @Value("${employee.scheduler.backlog-per-slot:2}") int backlogPerSlot) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.maxBacklog = this.maxConcurrency * Math.max(1, backlogPerSlot);
+    }
+
+    /**
+     * Opens the lane of one upload; closing it waits until every task submitted to it has finished. If the
+     * waiting thread is interrupted, the lane's queued tasks are dropped instead and close fails with a
+     * {@link CancellationException}, so an abandoned upload stops taking slots from the others. A task that
+     * throws cancels its lane the same way, for instance when the client of a streaming upload went away.
+     */
+    Lane openLane(String name, int weight) {
+        return new Lane(name, Math.max(1, weight));
+    }
+
+    private void dispatch() {
+        while (true) {
+            Runnable task;
+            Lane lane;
+            lock.lock();
+            try {
+                if (running >= maxConcurrency || activeLanes.isEmpty()) {
+                    return;
+                }
+                lane = activeLanes.getFirst();
+                for (Lane candidate : activeLanes) {
+                    if (candidate.pass < lane.pass) {
+                        lane = candidate;
+                    }
+                }
+                task = lane.queue.poll();
+                lane.space.signal();
+                virtualTime = lane.pass;
+                lane.pass += 1.0 / lane.weight;
+                if (lane.queue.isEmpty()) {
+                    activeLanes.remove(lane);
+                }
+                queued--;
+                running++;
+            } finally {
+                lock.unlock();
+            }
+            Lane owner = lane;
+            Thread.ofVirtual().name("resolve-" + owner.name).start(() -> run(owner, task));
+        }
+    }
+
+    private void run(Lane lane, Runnable task) {
+        RUNNING_LANE.set(lane);
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.warn("Resolution task of the {} upload failed, cancelling it: {}", lane.name, e.getMessage());
+            lane.cancel(e);
+        } finally {
+            lock.lock();
+            try {
+                running--;
+                if (--lane.pending == 0) {
+                    lane.drained.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+            dispatch();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ovintocrew.scheduler.running", this, scheduler -> scheduler.running)
+                .description("Employee resolution tasks running under the global budget")
+                .register(registry);
+        Gauge.builder("ovintocrew.scheduler.queued", this, scheduler -> scheduler.queued)
+                .description("Employee resolution tasks waiting for a slot")
+                .register(registry);
+        Gauge.builder("ovintocrew.scheduler.lanes", this, scheduler -> scheduler.activeLanes.size())
+                .description("Uploads with tasks waiting for a slot")
+                .register(registry);
+    }
+
+    final class Lane implements AutoCloseable {
+
+        private final String name;
+        private final int weight;
+        private final Deque<Runnable> queue = new ArrayDeque<>();
+        private final Condition drained = lock.newCondition();
+        private final Condition space = lock.newCondition();
+        private double pass;
+        private int pending;
+        private volatile boolean abandoned;
+        private RuntimeException failure;
+
+        private Lane(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        /**
+         * Queues a task, blocking while the lane's backlog is full; tasks may submit further tasks to their own
+         * lane without blocking. Tasks submitted to an abandoned lane are dropped. An interrupt while blocked
+         * abandons the lane like an interrupted {@link #close}.
+         */
+        void submit(Runnable task) {
+            lock.lock();
+            try {
+                if (RUNNING_LANE.get() != this) {
+                    while (!abandoned && queue.size() >= maxBacklog) {
+                        try {
+                            space.await();
+                        } catch (InterruptedException e) {
+                            abandon();
+                            Thread.currentThread().interrupt();
+                            throw new CancellationException("Resolution of the " + name + " upload was interrupted");
+                        }
+                    }
+                }
+                if (abandoned) {
+                    return;
+                }
+                if (queue.isEmpty()) {
+                    // a lane that was idle starts at the current virtual time instead of banking credit
+                    pass = Math.max(pass, virtualTime);
+                    activeLanes.add(this);
+                }
+                queue.add(task);
+                pending++;
+                queued++;
+            } finally {
+                lock.unlock();
+            }
+            dispatch();
+        }
+
+        /**
+         * Whether the lane was abandoned; the submitting thread should stop reading the upload once it is.
+         */
+        boolean isCancelled() {
+            return abandoned;
+        }
+
+        /**
+         * Drops the queued tasks after a failure; close fails with it once the running tasks have finished.
+         */
+        void cancel(RuntimeException cause) {
+            lock.lock();
+            try {
+                if (!abandoned) {
+                    failure = cause;
+                    abandon();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                while (pending > 0) {
+                    try {
+                        drained.await();
+                    } catch (InterruptedException e) {
+                        abandon();
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException("Resolution of the " + name + " upload was interrupted");
+                    }
+                }
+                if (failure != null) {
+                    CancellationException cancelled = new CancellationException(
+                            "Resolution of the " + name + " upload failed: " + failure.getMessage());
+                    cancelled.initCause(failure);
+                    throw cancelled;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Drops the queued tasks; tasks already running finish on their own. Called with the lock held.
+         */
+        private void abandon() {
+            if (abandoned) {
+                return;
+            }
+            abandoned = true;
+            space.signalAll();
+            int dropped = queue.size();
+            queue.clear();
+            activeLanes.remove(this);
+            queued -= dropped;
+            pending -= dropped;
+            log.warn("Abandoned the {} upload's lane with {} queued tasks", name, dropped);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.model.dto.Employee;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The resolved employees of the last completed upload, keyed by id together with a hash of the uploaded
+ * fields. A re-upload reuses every employee whose fields are unchanged and whose resolution is younger than
+ * the max age, so only added and changed employees cost upstream calls. The max age bounds how long a moved
+ * employee keeps the previous coordinates.
+ * <p>
+ * Entries are kept in a {@link ColumnarRoster} with dictionary-encoded names, so a large roster costs
+ * primitive columns rather than an {@link Employee} per row, and a reused employee is only materialized when
+ * it ends up in a response. Each generation gets its own dictionary, so names of employees that left the
+ * roster are dropped together with the generation that last held them.
+ */
+@Component
+public class RosterSnapshot {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final boolean enabled;
+    private final long maxAgeNanos;
+    private volatile ColumnarRoster current = new ColumnarRoster(new StringDictionary(), 0);
+
+    public RosterSnapshot(
+            @Value("${employee.snapshot.enabled:true}") boolean enabled,
+            @Value("${employee.snapshot.max-age:PT1H}") Duration maxAge) {
+        this.enabled = enabled;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    /**
+     * Starts the snapshot of one upload; it replaces the current one only once {@link Generation#commit} is called.
+     */
+    Generation begin() {
+        return new Generation(current);
+    }
+
+    public int size() {
+        return current.size();
+    }
+
+    /**
+     * 64-bit FNV-1a over the uploaded fields, with a separator so shifting text between fields changes it.
+     */
+    static long contentHash(Employee employee) {
+        long hash = FNV_OFFSET;
+        for (String field : new String[]{employee.id(), employee.firstName(), employee.lastName(), employee.email()}) {
+            if (field != null) {
+                for (byte b : field.getBytes(StandardCharsets.UTF_8)) {
+                    hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+                }
+            }
+            hash = (hash ^ 0x1f) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    final class Generation {
+
+        private final ColumnarRoster previous;
+        private final ColumnarRoster next;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Generation(ColumnarRoster previous) {
+            this.previous = previous;
+            this.next = new ColumnarRoster(new StringDictionary(), previous.size());
+        }
+
+        /**
+         * Returns the row of the previously resolved employee when the uploaded one is unchanged, otherwise -1.
+         * Read the row through {@link #distance} and {@link #view}.
+         */
+        int reuse(Employee parsed) {
+            if (!enabled || parsed.id() == null) {
+                return -1;
+            }
+            int row = previous.find(parsed.id());
+            if (row < 0 || previous.contentHash(row) != contentHash(parsed)
+                    || System.nanoTime() - previous.resolvedAt(row) > maxAgeNanos) {
+                return -1;
+            }
+            lock.lock();
+            try {
+                next.copy(previous, row);
+            } finally {
+                lock.unlock();
+            }
+            return row;
+        }
+
+        /**
+         * Distance of a reused row, without materializing the employee.
+         */
+        double distance(int row) {
+            return previous.distance(row);
+        }
+
+        Employee view(int row) {
+            return previous.view(row);
+        }
+
+        /**
+         * Keeps a freshly resolved employee for the next upload; employees without a location are left out so
+         * they are retried.
+         */
+        void record(Employee parsed, Employee resolved) {
+            record(parsed, resolved, System.nanoTime());
+        }
+
+        /**
+         * Keeps an employee restored from the {@link com.example.ovintocrew.store.LocationStore}, stamped with
+         * the time it was originally resolved. Returns false without keeping it when it is older than the max
+         * age, so the caller resolves it again instead of serving a stale position.
+         */
+        boolean restore(Employee parsed, Employee restored, long ageNanos) {
+            if (ageNanos > maxAgeNanos) {
+                return false;
+            }
+            record(parsed, restored, System.nanoTime() - ageNanos);
+            return true;
+        }
+
+        private void record(Employee parsed, Employee resolved, long resolvedAtNanos) {
+            if (enabled && parsed.id() != null && resolved.latitude() != null && resolved.distanceFromHQ() != null) {
+                long hash = contentHash(parsed);
+                lock.lock();
+                try {
+                    next.append(resolved, hash, resolvedAtNanos);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        void commit() {
+            if (enabled) {
+                current = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.Util.SpatialIndex;
+import com.example.ovintocrew.config.SitesProperties;
+import com.example.ovintocrew.model.dto.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Answers "who is within X km of site S" and "which site is nearest to each employee" with spatial indexes
+ * over the resolved employee positions and the configured sites, instead of comparing every pair. Only the
+ * locations are resolved; no HQ road distance is requested for these queries.
+ */
+@Service
+@Slf4j
+public class SiteProximityService {
+
+    private final EmployeeService employeeService;
+    private final List<Site> sites;
+    private final SpatialIndex<Site> siteIndex;
+
+    public SiteProximityService(EmployeeService employeeService, SitesProperties sitesProperties) {
+        this.employeeService = employeeService;
+        this.sites = sitesProperties.sites();
+        this.siteIndex = SpatialIndex.of(sites, Site::latitude, Site::longitude);
+    }
+
+    /**
+     * Resolves the roster and matches it against every configured site, or only {@code siteName} when given.
+     */
+    public SiteProximityResponse getSiteProximity(InputStream inputStream, double radiusKm, String siteName) {
+        if (radiusKm < 0) {
+            throw new IllegalArgumentException("radiusKm must not be negative");
+        }
+        List<Site> selectedSites = siteName == null ? sites : sites.stream()
+                .filter(site -> site.name().equals(siteName))
+                .toList();
+        if (selectedSites.isEmpty()) {
+            throw new IllegalArgumentException(siteName == null ? "No sites configured" : "Unknown site " + siteName);
+        }
+
+        List<Employee> located = Collections.synchronizedList(new ArrayList<>());
+        employeeService.resolveLocations(inputStream, ProcessingPriority.NORMAL, new ProximityListener() {
+            @Override
+            public void onEmployeeResolved(Employee employee, boolean withinRange) {
+                if (employee.latitude() != null && employee.longitude() != null) {
+                    located.add(employee);
+                }
+            }
+        });
+        SpatialIndex<Employee> employeeIndex = SpatialIndex.of(located, Employee::latitude, Employee::longitude);
+        log.info("Indexed {} located employees against {} sites", employeeIndex.size(), selectedSites.size());
+
+        List<SiteProximity> siteProximities = selectedSites.stream()
+                .map(site -> new SiteProximity(site, employeeIndex.withinRadius(site.latitude(), site.longitude(), radiusKm)
+                        .stream()
+                        .map(neighbor -> new EmployeeDistance(neighbor.item(), neighbor.distanceKm()))
+                        .toList()))
+                .toList();
+
+        return SiteProximityResponse.builder()
+                .radiusKm(radiusKm)
+                .sites(siteProximities)
+                .nearestSites(nearestSites(located))
+                .build();
+    }
+
+    private List<NearestSite> nearestSites(List<Employee> employees) {
+        List<NearestSite> nearestSites = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            SpatialIndex.Neighbor<Site> nearest = siteIndex.nearest(employee.latitude(), employee.longitude(), 1).getFirst();
+            nearestSites.add(new NearestSite(employee.id(), nearest.item().name(), nearest.distanceKm()));
+        }
+        return nearestSites;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.ovintocrew.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Maps repeated strings such as first and last names to dense int codes, so a roster stores each distinct
+ * value once. Code -1 stands for null. Encoding is thread-safe; decoding never locks.
+ */
+final class StringDictionary {
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile String[] values = new String[64];
+    private int size;
+
+    int encode(String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        lock.lock();
+        try {
+            code = codes.get(value);
+            if (code == null) {
+                String[] current = values;
+                if (size == current.length) {
+                    current = Arrays.copyOf(current, size * 2);
+                }
+                current[size] = value;
+                values = current;
+                code = size++;
+                codes.put(value, code);
+            }
+            return code;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    String decode(int code) {
+        return code < 0 ? null : values[code];
+    }
+
+    int size() {
+        return codes.size();
+    }
+}
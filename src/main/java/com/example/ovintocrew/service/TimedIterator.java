@@ -0,0 +1,43 @@
+package com.example.ovintocrew.service;
+
+import java.util.Iterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Adds up the time spent inside {@code hasNext}/{@code next} of a lazy iterator, i.e. the cost of producing
+ * the elements without the work the caller does between them, and reports it once the iterator is exhausted.
+ */
+class TimedIterator<T> implements Iterator<T> {
+
+    private final Iterator<T> delegate;
+    private final LongConsumer onExhausted;
+    private long elapsedNanos;
+    private boolean reported;
+
+    TimedIterator(Iterator<T> delegate, LongConsumer onExhausted) {
+        this.delegate = delegate;
+        this.onExhausted = onExhausted;
+    }
+
+    @Override
+    public boolean hasNext() {
+        long start = System.nanoTime();
+        boolean hasNext = delegate.hasNext();
+        elapsedNanos += System.nanoTime() - start;
+        if (!hasNext && !reported) {
+            reported = true;
+            onExhausted.accept(elapsedNanos);
+        }
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        long start = System.nanoTime();
+        try {
+            return delegate.next();
+        } finally {
+            elapsedNanos += System.nanoTime() - start;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.ovintocrew.service;
+
+/**
+ * Thrown by {@link ProximityJobService} when an upload inflates to more than the configured maximum, so a
+ * small compressed body cannot fill the disk with its spool file.
+ */
+public class UploadTooLargeException extends RuntimeException {
+
+    public UploadTooLargeException(long maxBytes) {
+        super("Upload exceeds the maximum of " + maxBytes + " bytes once decompressed");
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.ovintocrew.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Resolved employee coordinates and distances that survive restarts, so a fresh instance does not have to
+ * ask the upstream services again for the whole roster.
+ * <p>
+ * The data lives in an append-only log of fixed-width records keyed by employee id; the latest record of an
+ * id wins. At startup the log is memory-mapped and indexed on a background thread, and lookups simply miss
+ * until that is done. {@link #put} only enqueues: a single writer thread appends in batches and, once the log
+ * holds far more records than live entries, rewrites it with only the live ones and swaps it in atomically.
+ * A torn record at the end of the log, left by a crash, is cut off on open.
+ */
+@Component
+@Slf4j
+public class LocationStore implements DisposableBean {
+
+    static final String FILE_NAME = "locations.log";
+    private static final byte[] MAGIC = "OVCLOC01".getBytes(StandardCharsets.US_ASCII);
+
+    static final int MAX_ID_BYTES = 64;
+    // short id length | id bytes | latitude | longitude | distance | stored-at millis | crc32 | padding
+    private static final int LAT_OFFSET = 2 + MAX_ID_BYTES;
+    private static final int CRC_OFFSET = LAT_OFFSET + 4 * Long.BYTES;
+    static final int RECORD_SIZE = CRC_OFFSET + Integer.BYTES + 2;
+
+    private static final int MIN_RECORDS_TO_COMPACT = 1024;
+    private static final int WRITE_BATCH = 1024;
+    private static final Write SHUTDOWN = new Write(null, null);
+
+    private final boolean enabled;
+    private final Path file;
+    private final long maxAgeMillis;
+    private final double compactRatio;
+
+    private final Map<String, StoredLocation> index = new ConcurrentHashMap<>();
+    private final BlockingQueue<Write> writes;
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private final AtomicLong droppedWrites = new AtomicLong();
+    private FileChannel channel;
+    private long records;
+    private Thread writer;
+
+    public LocationStore(
+            @Value("${employee.store.directory:}") String directory,
+            @Value("${employee.store.max-age:PT24H}") Duration maxAge,
+            @Value("${employee.store.queue-capacity:10000}") int queueCapacity,
+            @Value("${employee.store.compact-ratio:2.0}") double compactRatio) {
+        this.enabled = directory != null && !directory.isBlank();
+        this.file = enabled ? Path.of(directory).resolve(FILE_NAME) : null;
+        this.maxAgeMillis = maxAge.toMillis();
+        this.compactRatio = Math.max(1.0, compactRatio);
+        this.writes = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        if (!enabled) {
+            loaded.countDown();
+            return;
+        }
+        try {
+            long validLength = open();
+            Thread.ofVirtual().name("location-store-loader").start(() -> load(validLength));
+            writer = Thread.ofPlatform().name("location-store-writer").daemon().start(this::writeLoop);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open location store " + file, e);
+        }
+    }
+
+    /**
+     * Returns the stored location of the employee unless it is older than the max age.
+     */
+    public Optional<StoredLocation> get(String employeeId) {
+        if (!enabled || employeeId == null) {
+            return Optional.empty();
+        }
+        StoredLocation stored = index.get(employeeId);
+        if (stored == null || System.currentTimeMillis() - stored.storedAtMillis() > maxAgeMillis) {
+            return Optional.empty();
+        }
+        return Optional.of(stored);
+    }
+
+    /**
+     * Records a resolved location without blocking: it is visible to {@link #get} at once and appended to the
+     * log by the writer thread. When the write queue is full the record is only kept in memory.
+     */
+    public void put(String employeeId, double latitude, double longitude, double distanceKm) {
+        if (!enabled || employeeId == null || employeeId.getBytes(StandardCharsets.UTF_8).length > MAX_ID_BYTES) {
+            return;
+        }
+        StoredLocation stored = new StoredLocation(latitude, longitude, distanceKm, System.currentTimeMillis());
+        index.put(employeeId, stored);
+        if (!writes.offer(new Write(employeeId, stored))) {
+            droppedWrites.incrementAndGet();
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean awaitLoaded(Duration timeout) throws InterruptedException {
+        return loaded.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public long getDroppedWrites() {
+        return droppedWrites.get();
+    }
+
+    /**
+     * Opens the log for appending, writing the header of a new file or cutting a torn last record, and
+     * returns the length of the valid part.
+     */
+    private long open() throws IOException {
+        Files.createDirectories(file.getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size < MAGIC.length || !hasMagic()) {
+            if (size > 0) {
+                log.warn("Location store {} has an unknown format, starting a new one", file);
+            }
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(MAGIC), 0);
+            size = MAGIC.length;
+        }
+        long validLength = MAGIC.length + (size - MAGIC.length) / RECORD_SIZE * RECORD_SIZE;
+        if (validLength < size) {
+            log.warn("Cutting a torn record off the end of location store {}", file);
+            channel.truncate(validLength);
+        }
+        channel.position(validLength);
+        records = (validLength - MAGIC.length) / RECORD_SIZE;
+        return validLength;
+    }
+
+    private boolean hasMagic() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length);
+        channel.read(header, 0);
+        return Arrays.equals(header.array(), MAGIC);
+    }
+
+    private void load(long length) {
+        Map<String, StoredLocation> restored = new HashMap<>();
+        try (FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            byte[] record = new byte[RECORD_SIZE];
+            for (long offset = MAGIC.length; offset + RECORD_SIZE <= length; offset += RECORD_SIZE) {
+                mapped.get((int) offset, record);
+                Write decoded = decode(record);
+                if (decoded != null) {
+                    restored.put(decoded.employeeId(), decoded.location());
+                }
+            }
+            // a put made while loading is newer than anything in the file
+            restored.forEach(index::putIfAbsent);
+            log.info("Loaded stored locations for {} employees from {}", restored.size(), file);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not load location store {}: {}", file, e.getMessage(), e);
+        } finally {
+            loaded.countDown();
+        }
+    }
+
+    private void writeLoop() {
+        List<Write> batch = new ArrayList<>(WRITE_BATCH);
+        try {
+            boolean running = true;
+            while (running) {
+                batch.add(writes.take());
+                writes.drainTo(batch, WRITE_BATCH - 1);
+                running = batch.remove(SHUTDOWN) ? writeDrained(batch) : write(batch);
+                batch.clear();
+                if (running && shouldCompact()) {
+                    compact();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Location store {} stopped persisting: {}", file, e.getMessage(), e);
+        }
+    }
+
+    private boolean write(List<Write> batch) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(batch.size() * RECORD_SIZE);
+        for (Write write : batch) {
+            encode(write, buffer);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        records += batch.size();
+        return true;
+    }
+
+    private boolean writeDrained(List<Write> batch) throws IOException {
+        writes.drainTo(batch);
+        batch.remove(SHUTDOWN);
+        write(batch);
+        channel.force(false);
+        return false;
+    }
+
+    private boolean shouldCompact() {
+        return loaded.getCount() == 0 && records >= MIN_RECORDS_TO_COMPACT && records > compactRatio * index.size();
+    }
+
+    /**
+     * Rewrites the log with one record per live, unexpired entry. Runs on the writer thread, so no append
+     * can interleave with it.
+     */
+    private void compact() throws IOException {
+        long before = records;
+        long cutoff = System.currentTimeMillis() - maxAgeMillis;
+        index.values().removeIf(stored -> stored.storedAtMillis() < cutoff);
+
+        Path compacted = file.resolveSibling(FILE_NAME + ".compact");
+        long written = 0;
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.wrap(MAGIC));
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BATCH * RECORD_SIZE);
+            for (Map.Entry<String, StoredLocation> entry : index.entrySet()) {
+                encode(new Write(entry.getKey(), entry.getValue()), buffer);
+                written++;
+                if (!buffer.hasRemaining()) {
+                    flush(buffer, out);
+                }
+            }
+            flush(buffer, out);
+            out.force(false);
+        }
+        channel.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        records = written;
+        log.info("Compacted location store {} from {} to {} records", file, before, written);
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void encode(Write write, ByteBuffer buffer) {
+        int start = buffer.position();
+        byte[] id = write.employeeId().getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) id.length);
+        buffer.put(id);
+        buffer.position(start + LAT_OFFSET);
+        buffer.putDouble(write.location().latitude());
+        buffer.putDouble(write.location().longitude());
+        buffer.putDouble(write.location().distanceKm());
+        buffer.putLong(write.location().storedAtMillis());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), buffer.arrayOffset() + start, CRC_OFFSET);
+        buffer.putInt((int) crc.getValue());
+        buffer.position(start + RECORD_SIZE);
+    }
+
+    private static Write decode(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, CRC_OFFSET);
+        int idLength = buffer.getShort();
+        if ((int) crc.getValue() != buffer.getInt(CRC_OFFSET) || idLength <= 0 || idLength > MAX_ID_BYTES) {
+            return null;
+        }
+        String id = new String(record, 2, idLength, StandardCharsets.UTF_8);
+        buffer.position(LAT_OFFSET);
+        return new Write(id, new StoredLocation(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getLong()));
+    }
+
+    @Override
+    public void destroy() throws InterruptedException, IOException {
+        if (writer == null) {
+            return;
+        }
+        writes.put(SHUTDOWN);
+        writer.join(Duration.ofSeconds(10));
+        channel.close();
+    }
+
+    private record Write(String employeeId, StoredLocation location) {}
+}
@@ -0,0 +1,6 @@
+package com.example.ovintocrew.store;
+
+/**
+ * A resolved employee position as persisted by {@link LocationStore}.
+ */
+public record StoredLocation(double latitude, double longitude, double distanceKm, long storedAtMillis) {}
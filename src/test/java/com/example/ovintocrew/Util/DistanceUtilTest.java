@@ -0,0 +1,70 @@
+package com.example.ovintocrew.Util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DistanceUtilTest {
+
+    @Test
+    @DisplayName("Should compute the same rounded distances in batch as one at a time")
+    public void testBatchMatchesScalar() {
+        Random random = new Random(7);
+        double[] lats = new double[1000];
+        double[] lons = new double[1000];
+        for (int i = 0; i < lats.length; i++) {
+            lats[i] = random.nextDouble() * 180 - 90;
+            lons[i] = random.nextDouble() * 360 - 180;
+        }
+        double[] distances = new double[lats.length];
+
+        DistanceUtil.calculateDistances(51.10, 3.43, lats, lons, distances);
+
+        for (int i = 0; i < lats.length; i++) {
+            assertEquals(DistanceUtil.calculateDistance(51.10, 3.43, lats[i], lons[i]), distances[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Should round to one decimal like the previous DecimalFormat-based rounding")
+    public void testRoundingMatchesDecimalFormat() {
+        DecimalFormat format = new DecimalFormat("#.0", DecimalFormatSymbols.getInstance(Locale.ROOT));
+        format.setRoundingMode(RoundingMode.HALF_EVEN);
+        Random random = new Random(11);
+        for (int i = 0; i < 10_000; i++) {
+            double distance = random.nextDouble() * 20_000;
+            assertEquals(Double.parseDouble(format.format(distance)), DistanceUtil.round(distance));
+        }
+    }
+
+    @Test
+    @DisplayName("Should round values near a tie by their exact binary value like DecimalFormat")
+    public void testRoundingNearTies() {
+        assertEquals(0.1, DistanceUtil.round(0.05));
+        assertEquals(0.1, DistanceUtil.round(0.15));
+        assertEquals(0.2, DistanceUtil.round(0.25));
+        assertEquals(0.3, DistanceUtil.round(0.35));
+        assertEquals(2.0, DistanceUtil.round(2.0));
+
+        DecimalFormat format = new DecimalFormat("#.0", DecimalFormatSymbols.getInstance(Locale.ROOT));
+        format.setRoundingMode(RoundingMode.HALF_EVEN);
+        for (int tenths = 0; tenths < 200_000; tenths++) {
+            double tie = tenths / 10.0 + 0.05;
+            assertEquals(Double.parseDouble(format.format(tie)), DistanceUtil.round(tie), () -> "round(" + tie + ")");
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject result arrays shorter than the input")
+    public void testArrayLengthsAreChecked() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DistanceUtil.calculateDistances(0, 0, new double[2], new double[2], new double[1]));
+    }
+}
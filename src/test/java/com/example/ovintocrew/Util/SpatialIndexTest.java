@@ -0,0 +1,49 @@
+package com.example.ovintocrew.Util;
+
+import com.example.ovintocrew.model.dto.Site;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpatialIndexTest {
+
+    @Test
+    @DisplayName("Should return the same radius and k-nearest results as a brute-force scan")
+    public void testMatchesBruteForce() {
+        Random random = new Random(42);
+        List<Site> points = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            points.add(new Site(String.valueOf(i), 49 + random.nextDouble() * 4, 2 + random.nextDouble() * 5));
+        }
+        SpatialIndex<Site> index = SpatialIndex.of(points, Site::latitude, Site::longitude);
+
+        List<String> expectedWithin = points.stream()
+                .filter(p -> DistanceUtil.calculateDistance(51.10, 3.43, p.latitude(), p.longitude()) <= 30.0)
+                .map(Site::name).sorted().toList();
+        List<String> actualWithin = index.withinRadius(51.10, 3.43, 30.0).stream()
+                .map(n -> n.item().name()).sorted().toList();
+        assertEquals(expectedWithin, actualWithin);
+
+        List<String> expectedNearest = points.stream()
+                .sorted(Comparator.comparingDouble(p -> DistanceUtil.calculateDistance(50.0, 4.0, p.latitude(), p.longitude())))
+                .limit(5).map(Site::name).toList();
+        List<String> actualNearest = index.nearest(50.0, 4.0, 5).stream().map(n -> n.item().name()).toList();
+        assertEquals(expectedNearest, actualNearest);
+    }
+
+    @Test
+    @DisplayName("Should find neighbours across the antimeridian")
+    public void testAntimeridian() {
+        List<Site> points = List.of(new Site("east", 0.0, 179.9), new Site("far", 0.0, 90.0));
+        SpatialIndex<Site> index = SpatialIndex.of(points, Site::latitude, Site::longitude);
+
+        assertEquals("east", index.nearest(0.0, -179.9, 1).getFirst().item().name());
+        assertEquals(1, index.withinRadius(0.0, -179.9, 50.0).size());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.ovintocrew.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AdaptiveConcurrencyLimiter Tests")
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    @DisplayName("Should shrink the limit on errors and grow it back on fast successes")
+    public void testLimitFollowsOutcomes() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 20, Duration.ofSeconds(5));
+
+        for (int i = 0; i < 10; i++) {
+            assertThrows(IllegalStateException.class, () -> limiter.execute(() -> {
+                throw new IllegalStateException("upstream failure");
+            }));
+        }
+        assertEquals(3, limiter.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            limiter.execute(() -> "ok");
+        }
+        assertTrue(limiter.getLimit() > 3);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should never run more calls at once than the current limit")
+    public void testConcurrencyIsCapped() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 3, 3, 3, Duration.ofSeconds(5));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(50);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 50; i++) {
+                executor.execute(() -> {
+                    try {
+                        limiter.execute(() -> {
+                            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                            Thread.sleep(2);
+                            return running.decrementAndGet();
+                        });
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+        }
+
+        assertEquals(0, done.getCount());
+        assertEquals(3, maxRunning.get());
+    }
+
+    @Test
+    @DisplayName("Should queue asynchronous calls and start them as earlier ones complete")
+    public void testAsyncCallsWaitForSlots() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 2, 2, Duration.ofSeconds(5));
+        List<CompletableFuture<String>> upstream = new ArrayList<>();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            results.add(limiter.executeAsync(() -> {
+                CompletableFuture<String> call = new CompletableFuture<>();
+                upstream.add(call);
+                return call;
+            }));
+        }
+        assertEquals(2, upstream.size());
+        assertEquals(3, limiter.getQueueDepth());
+
+        for (int i = 0; i < 5; i++) {
+            upstream.get(i).complete("call " + i);
+        }
+        assertEquals(5, upstream.size());
+        assertEquals("call 4", results.get(4).join());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.ovintocrew.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AsyncHttp Tests")
+public class AsyncHttpTest {
+
+    private HttpServer server;
+    private final CountDownLatch releaseBody = new CountDownLatch(1);
+
+    @BeforeEach
+    public void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/stalled", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write('[');
+                body.flush();
+                releaseBody.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopStubServer() {
+        releaseBody.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should release the body reader when the exchange times out")
+    public void testTimeoutReleasesReader() throws Exception {
+        HttpClient httpClient = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + server.getAddress().getPort() + "/stalled")).build();
+        CountDownLatch readerStarted = new CountDownLatch(1);
+        CountDownLatch readerReleased = new CountDownLatch(1);
+
+        CompletableFuture<Integer> result = AsyncHttp.send(httpClient, request, Duration.ofSeconds(1), (status, body) -> {
+            readerStarted.countDown();
+            try {
+                return body.readAllBytes().length;
+            } finally {
+                readerReleased.countDown();
+            }
+        });
+
+        assertTrue(readerStarted.await(5, TimeUnit.SECONDS));
+        Throwable error = assertThrows(Exception.class, result::join);
+        assertInstanceOf(TimeoutException.class, AsyncHttp.unwrap(error));
+        assertTrue(readerReleased.await(2, TimeUnit.SECONDS), "body reader still blocked after the timeout");
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.ovintocrew.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CircuitBreaker Tests")
+public class CircuitBreakerTest {
+
+    @Test
+    @DisplayName("Should open once the failure rate is reached and close after successful probes")
+    public void testOpensAndRecovers() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("test", 10, 4, 0.5, Duration.ofSeconds(1), Duration.ofMillis(50), 2);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onResult(1_000, i % 2 == 0);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.getRejectedCount());
+
+        Thread.sleep(60);
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onResult(1_000, true);
+        breaker.onResult(1_000, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should give a probe slot back when a permitted call never went out")
+    public void testReleaseReturnsProbe() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("test", 4, 4, 0.5, Duration.ofSeconds(1), Duration.ofMillis(20), 1);
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquire();
+            breaker.onResult(1_000, false);
+        }
+
+        Thread.sleep(30);
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.release();
+        assertTrue(breaker.tryAcquire());
+        breaker.onResult(1_000, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should count slow calls as failures and reopen when a probe fails")
+    public void testSlowCallsTripTheCircuit() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("test", 5, 5, 0.6, Duration.ofMillis(100), Duration.ofMillis(20), 1);
+
+        for (int i = 0; i < 5; i++) {
+            breaker.tryAcquire();
+            breaker.onResult(i < 3 ? Duration.ofMillis(500).toNanos() : 1_000, true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(30);
+        assertTrue(breaker.tryAcquire());
+        breaker.onResult(1_000, false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
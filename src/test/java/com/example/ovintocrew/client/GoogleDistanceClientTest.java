@@ -0,0 +1,122 @@
+package com.example.ovintocrew.client;
+
+import com.example.ovintocrew.metrics.ProximityMetrics;
+import com.example.ovintocrew.model.dto.Coordinates;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GoogleDistanceClient Tests")
+public class GoogleDistanceClientTest {
+
+    private HttpServer server;
+    private final List<Integer> destinationsPerRequest = new CopyOnWriteArrayList<>();
+    private final List<Integer> originsPerRequest = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/distancematrix/json", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            String[] origins = query.replaceAll(".*origins=([^&]*).*", "$1").split("\\|");
+            String destinations = query.replaceAll(".*destinations=([^&]*).*", "$1");
+            String[] points = destinations.split("\\|");
+            destinationsPerRequest.add(points.length);
+            originsPerRequest.add(origins.length);
+            List<String> rows = new ArrayList<>();
+            for (String origin : origins) {
+                int meters = origin.startsWith("50.000000") ? 20000 : 12345;
+                List<String> elements = new ArrayList<>();
+                for (String point : points) {
+                    elements.add(point.startsWith("0.000000")
+                            ? "{\"status\":\"ZERO_RESULTS\"}"
+                            : "{\"status\":\"OK\",\"distance\":{\"value\":" + meters + "}}");
+                }
+                rows.add("{\"elements\":[" + String.join(",", elements) + "]}");
+            }
+            byte[] body = ("{\"status\":\"OK\",\"rows\":[" + String.join(",", rows) + "]}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopStubServer() {
+        server.stop(0);
+    }
+
+    private GoogleDistanceClient newClient() {
+        return new GoogleDistanceClient("key", "http://localhost:" + server.getAddress().getPort()
+                + "/distancematrix/json", 1000, Duration.ofHours(1), 5, Duration.ofSeconds(5), HttpClient.newHttpClient(), newLimiter(),
+                new CircuitBreaker("test", 10, 5, 0.5, Duration.ofSeconds(5), Duration.ofMinutes(1), 1), new ProximityMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static AdaptiveConcurrencyLimiter newLimiter() {
+        return new AdaptiveConcurrencyLimiter("test", 10, 1, 10, Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should resolve several destinations in one request and mark unroutable ones as NaN")
+    public void testBatchedDistances() throws Exception {
+        GoogleDistanceClient client = newClient();
+
+        double[] distances = client.getDistances(51.1, 3.43,
+                List.of(new Coordinates(51.2, 3.5), new Coordinates(0.0, 0.0), new Coordinates(50.9, 4.1)));
+
+        assertArrayEquals(new double[]{12.345, Double.NaN, 12.345}, distances);
+        assertEquals(List.of(3), destinationsPerRequest);
+    }
+
+    @Test
+    @DisplayName("Should reuse distances for coordinates on the same grid cell")
+    public void testDistancesAreMemoized() throws Exception {
+        GoogleDistanceClient client = newClient();
+
+        client.getDistance(51.1, 3.43, 51.2, 3.5);
+        double again = client.getDistance(51.1, 3.43, 51.200001, 3.500001);
+        client.getDistances(51.1, 3.43, List.of(new Coordinates(51.2, 3.5), new Coordinates(50.9, 4.1)));
+
+        assertEquals(12.345, again);
+        assertEquals(List.of(1, 1), destinationsPerRequest);
+        assertEquals(2, client.getCacheStats().hitCount());
+    }
+
+    @Test
+    @DisplayName("Should resolve several origins in one request within the element limit")
+    public void testDistanceMatrix() throws Exception {
+        GoogleDistanceClient client = newClient();
+        List<Coordinates> origins = List.of(new Coordinates(51.1, 3.43), new Coordinates(50.0, 4.0));
+        List<Coordinates> destinations = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            destinations.add(new Coordinates(51.0 + i / 100.0, 3.5));
+        }
+        destinations.add(new Coordinates(0.0, 0.0));
+
+        double[][] distances = client.getDistanceMatrixAsync(origins, destinations).join();
+
+        assertEquals(12.345, distances[0][0]);
+        assertEquals(20.0, distances[1][59]);
+        assertTrue(Double.isNaN(distances[1][60]));
+        assertEquals(List.of(2, 2, 2), originsPerRequest);
+        assertEquals(61, destinationsPerRequest.stream().mapToInt(Integer::intValue).sum());
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.ovintocrew.client;
+
+import com.example.ovintocrew.metrics.ProximityMetrics;
+import com.example.ovintocrew.model.dto.LocationResponse;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LocationClient Tests")
+public class LocationClientTest {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger bulkRequests = new AtomicInteger();
+    private final AtomicInteger slowRequests = new AtomicInteger();
+    private volatile boolean bulkSupported = true;
+
+    @BeforeEach
+    public void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/locations/", exchange -> {
+            requests.incrementAndGet();
+            String id = exchange.getRequestURI().getPath().substring("/locations/".length());
+            if (id.equals("hung") || id.equals("slow") && slowRequests.getAndIncrement() == 0 || id.equals("busy")) {
+                try {
+                    Thread.sleep(id.equals("busy") ? 500 : 5_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = ("{\"id\":\"" + id + "\",\"coordinates\":{\"latitude\":51.1,\"longitude\":3.4}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/locations/bulk", exchange -> {
+            bulkRequests.incrementAndGet();
+            if (!bulkSupported) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            String ids = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)
+                    .replaceAll("[\\[\\]\"]", "");
+            List<String> locations = new ArrayList<>();
+            for (String id : ids.split(",")) {
+                if (!id.equals("unknown")) {
+                    locations.add("{\"id\":\"" + id + "\",\"coordinates\":{\"latitude\":50.0,\"longitude\":4.0}}");
+                }
+            }
+            byte[] body = ("[" + String.join(",", locations) + "]").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    @AfterEach
+    public void stopStubServer() {
+        server.stop(0);
+    }
+
+    private String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/locations/";
+    }
+
+    private LocationClient newClient(Duration ttl, Duration refreshAfter, Duration requestTimeout) {
+        return newClient(ttl, refreshAfter, requestTimeout, HedgePolicy.disabled());
+    }
+
+    private LocationClient newClient(Duration ttl, Duration refreshAfter, Duration requestTimeout, HedgePolicy hedgePolicy) {
+        return newClient(requestTimeout, hedgePolicy, new AdaptiveConcurrencyLimiter("test", 10, 1, 10, Duration.ofSeconds(5)),
+                ttl, refreshAfter);
+    }
+
+    private LocationClient newClient(Duration requestTimeout, HedgePolicy hedgePolicy, AdaptiveConcurrencyLimiter limiter,
+                                     Duration ttl, Duration refreshAfter) {
+        return new LocationClient(baseUrl(), 100, ttl, refreshAfter, requestTimeout, true, "bulk", 2,
+                HttpClient.newHttpClient(),
+                limiter,
+                hedgePolicy,
+                new ProximityMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    @DisplayName("Should serve repeated lookups from the cache")
+    public void testRepeatedLookupIsCached() {
+        LocationClient client = newClient(Duration.ofHours(1), Duration.ofMinutes(10), Duration.ofSeconds(5));
+
+        LocationResponse first = client.getLocation("42");
+        LocationResponse second = client.getLocation("42");
+
+        assertEquals("42", first.getId());
+        assertEquals(51.1, second.getCoordinates().getLatitude());
+        assertEquals(1, requests.get());
+        assertEquals(1, client.getCacheStats().hitCount());
+        assertEquals(1, client.getCacheStats().missCount());
+    }
+
+    @Test
+    @DisplayName("Should fetch again once the cached entry has expired")
+    public void testExpiredEntryIsFetchedAgain() throws InterruptedException {
+        LocationClient client = newClient(Duration.ofMillis(50), Duration.ofMillis(40), Duration.ofSeconds(5));
+
+        client.getLocation("42");
+        Thread.sleep(100);
+        client.getLocation("42");
+
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    @DisplayName("Should fail a lookup whose upstream does not answer within the request timeout")
+    public void testHungUpstreamTimesOut() {
+        LocationClient client = newClient(Duration.ofHours(1), Duration.ofMinutes(10), Duration.ofMillis(200));
+
+        long start = System.nanoTime();
+        assertThrows(IllegalStateException.class, () -> client.getLocation("hung"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2_000);
+        assertEquals("42", client.getLocationAsync("42").join().getId());
+    }
+
+    @Test
+    @DisplayName("Should fetch uncached locations in bulk chunks and fall back per id for ids the bulk call left out")
+    public void testBulkLookup() {
+        LocationClient client = newClient(Duration.ofHours(1), Duration.ofMinutes(10), Duration.ofSeconds(5));
+        client.getLocation("1");
+
+        Map<String, LocationResponse> locations = client.getLocations(List.of("1", "2", "3", "4", "unknown"));
+
+        assertEquals(5, locations.size());
+        assertEquals(50.0, locations.get("2").getCoordinates().getLatitude());
+        assertEquals(51.1, locations.get("unknown").getCoordinates().getLatitude());
+        assertEquals(2, bulkRequests.get());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    @DisplayName("Should switch to per-id lookups once the bulk endpoint turns out to be missing")
+    public void testBulkEndpointUnavailable() {
+        bulkSupported = false;
+        LocationClient client = newClient(Duration.ofHours(1), Duration.ofMinutes(10), Duration.ofSeconds(5));
+
+        client.getLocations(List.of("1", "2"));
+        Map<String, LocationResponse> locations = client.getLocations(List.of("3", "4"));
+
+        assertEquals(51.1, locations.get("4").getCoordinates().getLatitude());
+        assertEquals(1, bulkRequests.get());
+        assertEquals(4, requests.get());
+    }
+
+    @Test
+    @DisplayName("Should hedge a lookup that is slower than the recent latency percentile")
+    public void testSlowLookupIsHedged() {
+        LocationClient client = newClient(Duration.ofHours(1), Duration.ofMinutes(10), Duration.ofSeconds(10),
+                HedgePolicy.atPercentile(0.9, Duration.ofMillis(50), 0.1));
+        for (int i = 0; i < 30; i++) {
+            client.getLocation("warmup-" + i);
+        }
+
+        long start = System.nanoTime();
+        LocationResponse location = client.getLocation("slow");
+
+        assertEquals("slow", location.getId());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2_000);
+        assertEquals(2, slowRequests.get());
+    }
+
+    @Test
+    @DisplayName("Should not hedge lookups that are only slow because they wait for a limiter slot")
+    public void testQueuedLookupIsNotHedged() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1, Duration.ofSeconds(5));
+        LocationClient client = newClient(Duration.ofSeconds(10), HedgePolicy.atPercentile(0.9, Duration.ofMillis(200), 0.1),
+                limiter, Duration.ofHours(1), Duration.ofMinutes(10));
+        for (int i = 0; i < 30; i++) {
+            client.getLocation("warmup-" + i);
+        }
+
+        CompletableFuture<LocationResponse> busy = client.getLocationAsync("busy");
+        CompletableFuture<LocationResponse> queued = client.getLocationAsync("queued");
+
+        assertEquals("queued", queued.join().getId());
+        assertEquals("busy", busy.join().getId());
+        assertEquals(32, requests.get());
+    }
+}
@@ -1,23 +1,37 @@
 package com.example.ovintocrew.controller;
 
+import com.example.ovintocrew.model.dto.AggregationOptions;
 import com.example.ovintocrew.model.dto.Employee;
 import com.example.ovintocrew.model.dto.EmployeeProximityResponse;
+import com.example.ovintocrew.model.dto.EmployeeProximitySummary;
+import com.example.ovintocrew.model.dto.ProcessingPriority;
 import com.example.ovintocrew.service.EmployeeService;
+import com.example.ovintocrew.service.ProximityListener;
+import com.github.luben.zstd.Zstd;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -84,6 +98,95 @@ public class EmployeeControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @DisplayName("Should stream in-range employees as NDJSON followed by the summary")
+    @Test
+    public void testStreamEmployeesFromBody() throws Exception {
+        Employee employee = buildDummyEmployee();
+        Mockito.when(employeeService.streamEmployeeProximity(any(InputStream.class), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<Employee> sink = invocation.getArgument(1);
+                    sink.accept(employee);
+                    return new EmployeeProximitySummary(1, 1, employee);
+                });
+
+        MvcResult result = mockMvc.perform(post("/api/employees/process/stream")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(getXmlDummyContent()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"firstName\":\"John\""));
+        assertTrue(lines[1].contains("\"withinRangeCount\":1"));
+    }
+
+    @DisplayName("Should stream in-range employees as Server-Sent Events followed by the summary event")
+    @Test
+    public void testStreamEmployeeEventsFromBody() throws Exception {
+        Employee employee = buildDummyEmployee();
+        Mockito.when(employeeService.streamEmployeeProximity(any(InputStream.class), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<Employee> sink = invocation.getArgument(1);
+                    sink.accept(employee);
+                    return new EmployeeProximitySummary(1, 1, employee);
+                });
+
+        MvcResult result = mockMvc.perform(post("/api/employees/process/stream")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content(getXmlDummyContent()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] events = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andReturn().getResponse().getContentAsString().split("\n\n");
+
+        assertEquals(2, events.length);
+        assertTrue(events[0].startsWith("event:employee\ndata:{"));
+        assertTrue(events[0].contains("\"firstName\":\"John\""));
+        assertTrue(events[1].startsWith("event:summary\ndata:{"));
+    }
+
+    @DisplayName("Should decompress gzip bodies and zstd files while streaming them to the parser")
+    @Test
+    public void testCompressedUploads() throws Exception {
+        String xmlContent = getXmlDummyContent();
+        List<String> received = new ArrayList<>();
+        Mockito.when(employeeService.getEmployeeProximityResponse(any(InputStream.class), any(AggregationOptions.class), any(ProcessingPriority.class), any(ProximityListener.class)))
+                .thenAnswer(invocation -> {
+                    received.add(new String(invocation.<InputStream>getArgument(0).readAllBytes(), StandardCharsets.UTF_8));
+                    return buildDummyResponse(buildDummyEmployee());
+                });
+
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(xmlContent.getBytes(StandardCharsets.UTF_8));
+        }
+        mockMvc.perform(post("/api/employees/process")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(gzipped.toByteArray()))
+                .andExpect(status().isOk());
+        mockMvc.perform(multipart("/api/employees/process/file")
+                        .file(new MockMultipartFile("file", "employees.xml.zst", "application/zstd",
+                                Zstd.compress(xmlContent.getBytes(StandardCharsets.UTF_8)))))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/employees/process")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .header(HttpHeaders.CONTENT_ENCODING, "br")
+                        .content(xmlContent))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(List.of(xmlContent, xmlContent), received);
+    }
+
     private static EmployeeProximityResponse buildDummyResponse(Employee employee) {
         return EmployeeProximityResponse.builder()
                 .withinRange(List.of(employee))
@@ -0,0 +1,78 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.model.dto.Employee;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarRosterTest {
+
+    @Test
+    @DisplayName("Should find rows by id and materialize them with unresolved values as null")
+    public void testFindAndView() {
+        ColumnarRoster roster = new ColumnarRoster(new StringDictionary(), 0);
+        for (int i = 0; i < 100; i++) {
+            roster.append(employee(String.valueOf(i), i % 2 == 0 ? Double.valueOf(i) : null), i, i);
+        }
+
+        int row = roster.find("42");
+        Employee view = roster.view(row);
+
+        assertEquals(100, roster.size());
+        assertEquals(-1, roster.find("missing"));
+        assertEquals("42", view.id());
+        assertEquals("Jane", view.firstName());
+        assertEquals(42.0, view.distanceFromHQ());
+        assertEquals(42.0, roster.distance(row));
+        assertEquals(42L, roster.contentHash(row));
+        assertNull(roster.view(roster.find("43")).latitude());
+        assertTrue(Double.isNaN(roster.distance(roster.find("43"))));
+    }
+
+    @Test
+    @DisplayName("Should copy rows between rosters sharing a dictionary and store each name once")
+    public void testCopySharesDictionary() {
+        StringDictionary names = new StringDictionary();
+        ColumnarRoster previous = new ColumnarRoster(names, 0);
+        previous.append(employee("1", 5.0), 1, 1);
+        previous.append(employee("2", 6.0), 2, 2);
+        ColumnarRoster next = new ColumnarRoster(names, previous.size());
+
+        next.copy(previous, previous.find("2"));
+
+        assertEquals(1, next.size());
+        assertEquals(6.0, next.view(next.find("2")).distanceFromHQ());
+        assertEquals(-1, next.find("1"));
+        assertEquals(2, names.size());
+    }
+
+    @Test
+    @DisplayName("Should re-encode names when copying into a roster with its own dictionary")
+    public void testCopyIntoNewDictionary() {
+        ColumnarRoster previous = new ColumnarRoster(new StringDictionary(), 0);
+        previous.append(Employee.builder().id("1").firstName("Gone").lastName("Leaver").build(), 1, 1);
+        previous.append(employee("2", 6.0), 2, 2);
+        StringDictionary names = new StringDictionary();
+        ColumnarRoster next = new ColumnarRoster(names, previous.size());
+
+        next.copy(previous, previous.find("2"));
+
+        Employee view = next.view(next.find("2"));
+        assertEquals("Jane", view.firstName());
+        assertEquals("Smith", view.lastName());
+        assertEquals(2, names.size());
+    }
+
+    private static Employee employee(String id, Double distance) {
+        return Employee.builder()
+                .id(id)
+                .firstName("Jane")
+                .lastName("Smith")
+                .email(id + "@example.com")
+                .latitude(distance != null ? 50.0 : null)
+                .longitude(distance != null ? 4.0 : null)
+                .distanceFromHQ(distance)
+                .build();
+    }
+}
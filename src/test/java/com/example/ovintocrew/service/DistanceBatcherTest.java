@@ -0,0 +1,88 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.client.GoogleDistanceClient;
+import com.example.ovintocrew.metrics.ProximityMetrics;
+import com.example.ovintocrew.model.dto.Coordinates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DistanceBatcherTest {
+
+    @Mock
+    private GoogleDistanceClient googleDistanceClient;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ProximityMetrics metrics = new ProximityMetrics(registry);
+
+    private DistanceBatcher distanceBatcher;
+
+    @AfterEach
+    public void tearDown() {
+        distanceBatcher.destroy();
+    }
+
+    @Test
+    @DisplayName("Should send one Google request for a full batch and fail only the unroutable element")
+    public void testFullBatchIsSentOnce() {
+        distanceBatcher = new DistanceBatcher(googleDistanceClient, 2, 60_000, metrics);
+        when(googleDistanceClient.getDistancesAsync(anyDouble(), anyDouble(), anyList()))
+                .thenReturn(CompletableFuture.completedFuture(new double[]{12.5, Double.NaN}));
+
+        CompletableFuture<Double> first = distanceBatcher.getDistance(51.1, 3.43, 51.2, 3.5);
+        CompletableFuture<Double> second = distanceBatcher.getDistance(51.1, 3.43, 0.0, 0.0);
+
+        assertEquals(12.5, first.join());
+        assertThrows(CompletionException.class, second::join);
+        verify(googleDistanceClient, times(1)).getDistancesAsync(51.1, 3.43,
+                List.of(new Coordinates(51.2, 3.5), new Coordinates(0.0, 0.0)));
+    }
+
+    @Test
+    @DisplayName("Should send a partial batch once its time window elapses")
+    public void testPartialBatchIsSentAfterWindow() {
+        distanceBatcher = new DistanceBatcher(googleDistanceClient, 25, 10, metrics);
+        when(googleDistanceClient.getDistancesAsync(anyDouble(), anyDouble(), anyList()))
+                .thenReturn(CompletableFuture.completedFuture(new double[]{7.0}));
+
+        assertEquals(7.0, distanceBatcher.getDistance(51.1, 3.43, 51.2, 3.5).join());
+    }
+
+    @Test
+    @DisplayName("Should share one in-flight lookup between concurrent callers and clear it once done")
+    public void testConcurrentLookupsAreCoalesced() {
+        distanceBatcher = new DistanceBatcher(googleDistanceClient, 25, 60_000, metrics);
+        CompletableFuture<double[]> response = new CompletableFuture<>();
+        when(googleDistanceClient.getDistancesAsync(anyDouble(), anyDouble(), anyList())).thenReturn(response);
+
+        CompletableFuture<Double> first = distanceBatcher.getDistance(51.1, 3.43, 51.2, 3.5);
+        CompletableFuture<Double> second = distanceBatcher.getDistance(51.1, 3.43, 51.2, 3.5);
+        distanceBatcher.getDistance(51.1, 3.43, 51.3, 3.6);
+        distanceBatcher.getDistance(51.1, 3.43, 51.4, 3.7);
+        for (int i = 0; i < 22; i++) {
+            distanceBatcher.getDistance(51.1, 3.43, 52.0 + i, 3.0);
+        }
+        response.complete(new double[25]);
+
+        assertEquals(0.0, first.join());
+        assertEquals(0.0, second.join());
+        distanceBatcher.getDistance(51.1, 3.43, 51.2, 3.5);
+
+        verify(googleDistanceClient, times(1)).getDistancesAsync(anyDouble(), anyDouble(), anyList());
+        assertEquals(1.0, registry.get("ovintocrew.lookup.coalesced").counter().count());
+    }
+}
@@ -1,23 +1,42 @@
 package com.example.ovintocrew.service;
 
 import com.example.ovintocrew.client.LocationClient;
+import com.example.ovintocrew.metrics.ProximityMetrics;
 import com.example.ovintocrew.model.dto.Coordinates;
 import com.example.ovintocrew.model.dto.Employee;
 import com.example.ovintocrew.model.dto.EmployeeProximityResponse;
 import com.example.ovintocrew.model.dto.LocationResponse;
+import com.example.ovintocrew.model.dto.ProcessingPriority;
+import com.example.ovintocrew.store.LocationStore;
+import com.example.ovintocrew.store.StoredLocation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class EmployeeServiceTest {
@@ -25,9 +44,29 @@ public class EmployeeServiceTest {
     @Mock
     private LocationClient locationClient;
 
+    @Mock
+    private DistanceBatcher distanceBatcher;
+
+    @Spy
+    private ProximityMetrics metrics = new ProximityMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private RosterSnapshot rosterSnapshot = new RosterSnapshot(true, Duration.ofHours(1));
+
+    @Spy
+    private LocationStore locationStore = new LocationStore("", Duration.ofHours(1), 10, 2.0);
+
+    @Spy
+    private ResolutionScheduler resolutionScheduler = new ResolutionScheduler(64, 2);
+
     @InjectMocks
     private EmployeeService employeeService;
 
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(employeeService, "thresholdKm", 30.0);
+    }
+
     @Test
     @DisplayName("Should correctly parse employees from XML")
     public void testParseEmployeesFromXml() throws Exception {
@@ -65,6 +104,196 @@ public class EmployeeServiceTest {
         assertEquals("2", furthest.id(), "Employee 2 should be the furthest");
     }
 
+    @Test
+    @DisplayName("Should resolve employees while streaming them from XML")
+    public void testGetEmployeeProximityResponseFromStream() {
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(mockXml().getBytes(StandardCharsets.UTF_8));
+
+        when(locationClient.getLocation("1")).thenReturn(new LocationResponse("1", new Coordinates(0.1, 0.1)));
+        when(locationClient.getLocation("2")).thenReturn(new LocationResponse("2", new Coordinates(10.0, 10.0)));
+
+        EmployeeProximityResponse response = employeeService.getEmployeeProximityResponse(inputStream);
+
+        assertEquals(1, response.withinRange().size());
+        assertEquals("John", response.withinRange().getFirst().firstName());
+        assertEquals("Jane", response.furthest().firstName());
+        verify(metrics).recordXmlParse(anyLong());
+        verify(metrics, times(2)).recordHaversineFallback();
+    }
+
+    @Test
+    @DisplayName("Should fetch the roster's locations in bulk chunks")
+    public void testLocationsAreFetchedInChunks() {
+        ReflectionTestUtils.setField(employeeService, "locationChunkSize", 2);
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(mockXml().getBytes(StandardCharsets.UTF_8));
+
+        when(locationClient.getLocations(List.of("1", "2"))).thenReturn(Map.of(
+                "1", new LocationResponse("1", new Coordinates(0.1, 0.1)),
+                "2", new LocationResponse("2", new Coordinates(10.0, 10.0))));
+
+        EmployeeProximityResponse response = employeeService.getEmployeeProximityResponse(inputStream);
+
+        assertEquals(1, response.withinRange().size());
+        assertEquals("Jane", response.furthest().firstName());
+        verify(locationClient, never()).getLocation(anyString());
+    }
+
+    @Test
+    @DisplayName("Should not look up again employees the bulk lookup could not locate")
+    public void testPrefetchMissesAreNotLookedUpAgain() {
+        ReflectionTestUtils.setField(employeeService, "locationChunkSize", 2);
+        when(locationClient.getLocations(List.of("1", "2"))).thenReturn(Map.of(
+                "1", new LocationResponse("1", new Coordinates(0.1, 0.1))));
+
+        EmployeeProximityResponse response = employeeService.getEmployeeProximityResponse(
+                new ByteArrayInputStream(mockXml().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, response.withinRange().size());
+        verify(locationClient, never()).getLocation(anyString());
+        verify(metrics).recordLocationFailure();
+    }
+
+    @Test
+    @DisplayName("Should only resolve employees that changed since the previous upload")
+    public void testReuploadResolvesOnlyChanges() {
+        when(locationClient.getLocation("1")).thenReturn(new LocationResponse("1", new Coordinates(0.1, 0.1)));
+        when(locationClient.getLocation("2")).thenReturn(new LocationResponse("2", new Coordinates(10.0, 10.0)));
+        when(distanceBatcher.getDistance(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.<Double>getArgument(2) * 200));
+
+        employeeService.getEmployeeProximityResponse(new ByteArrayInputStream(mockXml().getBytes(StandardCharsets.UTF_8)));
+        String changed = mockXml().replace("jane.smith@example.com", "jane@example.com");
+        EmployeeProximityResponse response = employeeService.getEmployeeProximityResponse(
+                new ByteArrayInputStream(changed.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, response.withinRange().size());
+        assertEquals("jane@example.com", response.furthest().email());
+        verify(locationClient, times(1)).getLocation("1");
+        verify(locationClient, times(2)).getLocation("2");
+        assertEquals(2, rosterSnapshot.size());
+    }
+
+    @Test
+    @DisplayName("Should skip Google for employees the great-circle distance rules out")
+    public void testPrefilterSkipsRuledOutEmployees() {
+        ReflectionTestUtils.setField(employeeService, "prefilterEnabled", true);
+        ReflectionTestUtils.setField(employeeService, "maxDetourFactor", 2.0);
+        ReflectionTestUtils.setField(employeeService, "locationChunkSize", 3);
+        String xml = mockXml().replace("</Company>", """
+                    <Employee id="3">
+                        <FirstName>Jim</FirstName>
+                        <LastName>Beam</LastName>
+                        <Email>jim.beam@example.com</Email>
+                    </Employee>
+                </Company>""");
+        when(locationClient.getLocations(List.of("1", "2", "3"))).thenReturn(Map.of(
+                "1", new LocationResponse("1", new Coordinates(0.1, 0.1)),
+                "2", new LocationResponse("2", new Coordinates(10.0, 10.0)),
+                "3", new LocationResponse("3", new Coordinates(1.0, 1.0))));
+        when(distanceBatcher.getDistance(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.<Double>getArgument(2) * 200));
+
+        EmployeeProximityResponse response = employeeService.getEmployeeProximityResponse(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(List.of("1"), response.withinRange().stream().map(Employee::id).toList());
+        assertEquals("2", response.furthest().id());
+        verify(distanceBatcher, times(2)).getDistance(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+        verify(metrics).recordDistanceSkipped();
+        assertEquals(2, rosterSnapshot.size());
+    }
+
+    @Test
+    @DisplayName("Should not keep Haversine fallbacks in the snapshot or the store")
+    public void testFallbackDistancesAreNotPersisted() {
+        when(locationClient.getLocation("1")).thenReturn(new LocationResponse("1", new Coordinates(0.1, 0.1)));
+        when(locationClient.getLocation("2")).thenReturn(new LocationResponse("2", new Coordinates(10.0, 10.0)));
+        when(distanceBatcher.getDistance(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Google unavailable")));
+
+        EmployeeProximityResponse response = employeeService.getEmployeeProximityResponse(
+                new ByteArrayInputStream(mockXml().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("2", response.furthest().id());
+        verify(metrics, times(2)).recordHaversineFallback();
+        verify(locationStore, never()).put(anyString(), anyDouble(), anyDouble(), anyDouble());
+        assertTrue(locationStore.get("1").isEmpty());
+        assertEquals(0, rosterSnapshot.size());
+    }
+
+    @Test
+    @DisplayName("Should resolve only locations, without any HQ road distance, when asked for locations")
+    public void testResolveLocationsSkipsHqDistance() {
+        when(locationClient.getLocation("1")).thenReturn(new LocationResponse("1", new Coordinates(0.1, 0.1)));
+        when(locationClient.getLocation("2")).thenReturn(new LocationResponse("2", new Coordinates(10.0, 10.0)));
+        List<Employee> located = new CopyOnWriteArrayList<>();
+
+        employeeService.resolveLocations(new ByteArrayInputStream(mockXml().getBytes(StandardCharsets.UTF_8)),
+                ProcessingPriority.NORMAL, new ProximityListener() {
+                    @Override
+                    public void onEmployeeResolved(Employee employee, boolean withinRange) {
+                        located.add(employee);
+                    }
+                });
+
+        assertEquals(2, located.size());
+        assertTrue(located.stream().allMatch(employee -> employee.latitude() != null));
+        verifyNoInteractions(distanceBatcher);
+        verify(metrics, never()).recordHaversineFallback();
+        assertEquals(0, rosterSnapshot.size());
+    }
+
+    @Test
+    @DisplayName("Should only restore stored employees within the snapshot's max age")
+    public void testStaleStoredLocationsAreResolvedAgain() {
+        long now = System.currentTimeMillis();
+        doReturn(Optional.of(new StoredLocation(0.1, 0.1, 20.0, now - Duration.ofHours(2).toMillis())))
+                .when(locationStore).get("1");
+        doReturn(Optional.of(new StoredLocation(10.0, 10.0, 1500.0, now - Duration.ofMinutes(10).toMillis())))
+                .when(locationStore).get("2");
+        when(locationClient.getLocation("1")).thenReturn(new LocationResponse("1", new Coordinates(0.2, 0.2)));
+        when(distanceBatcher.getDistance(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(CompletableFuture.completedFuture(25.0));
+
+        EmployeeProximityResponse response = employeeService.getEmployeeProximityResponse(
+                new ByteArrayInputStream(mockXml().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(0.2, response.withinRange().getFirst().latitude());
+        assertEquals(1500.0, response.furthest().distanceFromHQ());
+        verify(locationClient, never()).getLocation("2");
+        assertEquals(2, rosterSnapshot.size());
+    }
+
+    @Test
+    @DisplayName("Should stop looking employees up once the streaming client has gone away")
+    public void testStreamingStopsWhenClientDisconnects() {
+        EmployeeService service = new EmployeeService(locationClient, distanceBatcher, metrics, rosterSnapshot,
+                locationStore, new ResolutionScheduler(1, 2));
+        ReflectionTestUtils.setField(service, "thresholdKm", 30.0);
+        when(locationClient.getLocation(anyString()))
+                .thenAnswer(invocation -> new LocationResponse(invocation.getArgument(0), new Coordinates(0.1, 0.1)));
+        StringBuilder xml = new StringBuilder("<Company>");
+        for (int i = 0; i < 50; i++) {
+            xml.append("<Employee id=\"").append(i).append("\"><FirstName>E").append(i).append("</FirstName></Employee>");
+        }
+        xml.append("</Company>");
+
+        assertThrows(CancellationException.class, () -> service.streamEmployeeProximity(
+                new ByteArrayInputStream(xml.toString().getBytes(StandardCharsets.UTF_8)), employee -> {
+                    throw new UncheckedIOException(new IOException("Broken pipe"));
+                }));
+
+        verify(locationClient, times(1)).getLocation(anyString());
+        assertEquals(0, rosterSnapshot.size());
+    }
+
+    @Test
+    @DisplayName("Should reject malformed XML")
+    public void testParseMalformedXml() {
+        ByteArrayInputStream inputStream = new ByteArrayInputStream("<Company><Employee id=\"1\">".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> employeeService.parseEmployeesFromXml(inputStream));
+    }
+
     private static Employee getMockedEmployee(String id) {
         return Employee.builder()
                 .id(id)
@@ -0,0 +1,93 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.client.GoogleDistanceClient;
+import com.example.ovintocrew.config.SitesProperties;
+import com.example.ovintocrew.metrics.ProximityMetrics;
+import com.example.ovintocrew.model.dto.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OriginProximityServiceTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @Mock
+    private GoogleDistanceClient googleDistanceClient;
+
+    private OriginProximityService originProximityService;
+
+    @BeforeEach
+    public void setUp() {
+        originProximityService = new OriginProximityService(employeeService, googleDistanceClient,
+                new ProximityMetrics(new SimpleMeterRegistry()),
+                new SitesProperties(List.of(new Site("hq", 51.10, 3.43), new Site("ghent", 51.05, 3.72))), 30.0);
+        doAnswer(invocation -> {
+                    ProximityListener listener = invocation.getArgument(2);
+                    for (Employee employee : List.of(employee("1", 51.10, 3.43), employee("2", 51.05, 3.72),
+                            Employee.builder().id("3").build())) {
+                        listener.onEmployeeRead(employee);
+                        listener.onEmployeeResolved(employee, false);
+                    }
+                    return null;
+                }).when(employeeService).resolveLocations(any(InputStream.class), any(ProcessingPriority.class), any(ProximityListener.class));
+    }
+
+    @Test
+    @DisplayName("Should answer every origin and threshold from one pipeline run with one distance matrix")
+    public void testRoadDistancesForSeveralOrigins() {
+        when(googleDistanceClient.getDistanceMatrixAsync(anyList(), anyList()))
+                .thenReturn(CompletableFuture.completedFuture(new double[][]{{1.0, 25.0}, {26.0, Double.NaN}}));
+
+        OriginProximityResponse response = originProximityService.getOriginProximity(xml(), List.of(),
+                List.of(10.0, 30.0), true);
+
+        assertEquals(3, response.processed());
+        OriginProximity hq = response.origins().getFirst();
+        assertEquals(List.of("1"), hq.thresholds().get(0).withinRange().stream().map(d -> d.employee().id()).toList());
+        assertEquals(List.of("1", "2"), hq.thresholds().get(1).withinRange().stream().map(d -> d.employee().id()).toList());
+        OriginProximity ghent = response.origins().get(1);
+        assertEquals(0.0, ghent.thresholds().get(0).withinRange().getFirst().distanceKm());
+        assertEquals("1", ghent.furthest().employee().id());
+        verify(employeeService, times(1)).resolveLocations(any(InputStream.class), any(ProcessingPriority.class), any(ProximityListener.class));
+        verify(employeeService, never()).getEmployeeProximityResponse(any(InputStream.class), any(AggregationOptions.class), any(ProximityListener.class));
+        verify(googleDistanceClient, times(1)).getDistanceMatrixAsync(anyList(), anyList());
+    }
+
+    @Test
+    @DisplayName("Should use Haversine only for ad-hoc coordinates when road distances are off")
+    public void testHaversineForCoordinates() {
+        OriginProximityResponse response = originProximityService.getOriginProximity(xml(), List.of("51.10,3.43"),
+                List.of(5.0), false);
+
+        assertEquals("51.10,3.43", response.origins().getFirst().origin().name());
+        assertEquals(1, response.origins().getFirst().thresholds().getFirst().withinRange().size());
+        verifyNoInteractions(googleDistanceClient);
+        assertThrows(IllegalArgumentException.class,
+                () -> originProximityService.getOriginProximity(xml(), List.of("nowhere"), List.of(), false));
+    }
+
+    private static Employee employee(String id, double lat, double lon) {
+        return Employee.builder().id(id).latitude(lat).longitude(lon).build();
+    }
+
+    private static InputStream xml() {
+        return new ByteArrayInputStream("<Company/>".getBytes());
+    }
+}
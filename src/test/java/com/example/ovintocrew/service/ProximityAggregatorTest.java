@@ -0,0 +1,58 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.model.dto.AggregationOptions;
+import com.example.ovintocrew.model.dto.DistanceBucket;
+import com.example.ovintocrew.model.dto.Employee;
+import com.example.ovintocrew.model.dto.EmployeeProximityResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProximityAggregatorTest {
+
+    @Test
+    @DisplayName("Should merge concurrent completions into rankings, a histogram and a sorted in-range list")
+    public void testAggregatesConcurrentCompletions() {
+        ProximityAggregator aggregator = new ProximityAggregator(30.0, new AggregationOptions(3, 10.0, true), true);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.rangeClosed(1, 100).forEach(i -> executor.execute(() -> aggregator.add(employee(i, (double) i))));
+            executor.execute(() -> aggregator.add(employee(0, null)));
+        }
+        EmployeeProximityResponse response = aggregator.toResponse();
+
+        assertEquals(30, response.withinRange().size());
+        assertEquals(1.0, response.withinRange().getFirst().distanceFromHQ());
+        assertEquals(30.0, response.withinRange().getLast().distanceFromHQ());
+        assertEquals("100", response.furthest().id());
+        assertEquals(List.of("1", "2", "3"), response.topNearest().stream().map(Employee::id).toList());
+        assertEquals(List.of("100", "99", "98"), response.topFurthest().stream().map(Employee::id).toList());
+        assertEquals(11, response.distanceHistogram().size());
+        assertEquals(new DistanceBucket(0.0, 10.0, 9), response.distanceHistogram().getFirst());
+        assertEquals(new DistanceBucket(100.0, 110.0, 1), response.distanceHistogram().getLast());
+        assertEquals(101, aggregator.toSummary().processed());
+    }
+
+    @Test
+    @DisplayName("Should leave the optional aggregations out by default")
+    public void testDefaultOptions() {
+        ProximityAggregator aggregator = new ProximityAggregator(30.0, AggregationOptions.DEFAULT, true);
+        aggregator.add(employee(1, 5.0));
+
+        EmployeeProximityResponse response = aggregator.toResponse();
+
+        assertEquals(1, response.withinRange().size());
+        assertNull(response.topNearest());
+        assertNull(response.distanceHistogram());
+    }
+
+    private static Employee employee(int id, Double distance) {
+        return Employee.builder().id(String.valueOf(id)).distanceFromHQ(distance).build();
+    }
+}
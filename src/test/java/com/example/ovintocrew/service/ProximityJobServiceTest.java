@@ -0,0 +1,143 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.model.dto.AggregationOptions;
+import com.example.ovintocrew.model.dto.Employee;
+import com.example.ovintocrew.model.dto.EmployeeProximityResponse;
+import com.example.ovintocrew.model.dto.ProcessingPriority;
+import com.example.ovintocrew.model.dto.ProximityJobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProximityJobServiceTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private ProximityJobService proximityJobService;
+
+    @AfterEach
+    public void tearDown() {
+        proximityJobService.destroy();
+    }
+
+    @Test
+    @DisplayName("Should run a submitted job in the background and report its progress and result")
+    public void testJobCompletes() throws Exception {
+        proximityJobService = new ProximityJobService(employeeService, 1, 1, Duration.ofHours(1), Duration.ofSeconds(5), DataSize.ofMegabytes(1));
+        Employee employee = Employee.builder().id("1").distanceFromHQ(10.0).build();
+        when(employeeService.getEmployeeProximityResponse(any(InputStream.class), any(AggregationOptions.class), any(ProcessingPriority.class), any(ProximityListener.class)))
+                .thenAnswer(invocation -> {
+                    ProximityListener listener = invocation.getArgument(3);
+                    listener.onEmployeeRead(employee);
+                    listener.onEmployeeResolved(employee, true);
+                    return EmployeeProximityResponse.builder().withinRange(List.of(employee)).furthest(employee).build();
+                });
+
+        ProximityJobStatus submitted = proximityJobService.submit(xml(), AggregationOptions.DEFAULT, ProcessingPriority.LOW);
+        ProximityJobStatus finished = proximityJobService.awaitStatus(submitted.id(), Duration.ofSeconds(5)).join();
+
+        assertEquals(ProximityJobStatus.State.COMPLETED, finished.state());
+        assertEquals(1, finished.processed());
+        assertEquals(1, finished.total());
+        assertEquals(1, finished.withinRangeCount());
+        assertEquals("1", finished.result().furthest().id());
+    }
+
+    @Test
+    @DisplayName("Should fail queued jobs and delete their spooled uploads on shutdown")
+    public void testShutdownDeletesQueuedSpools() throws Exception {
+        proximityJobService = new ProximityJobService(employeeService, 1, 1, Duration.ofHours(1), Duration.ofSeconds(5), DataSize.ofMegabytes(1));
+        CountDownLatch started = new CountDownLatch(1);
+        when(employeeService.getEmployeeProximityResponse(any(InputStream.class), any(AggregationOptions.class), any(ProcessingPriority.class), any(ProximityListener.class)))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    new CountDownLatch(1).await();
+                    return EmployeeProximityResponse.builder().withinRange(List.of()).build();
+                });
+
+        proximityJobService.submit(xml(), AggregationOptions.DEFAULT, ProcessingPriority.LOW);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Set<Path> before = spools();
+        ProximityJobStatus queued = proximityJobService.submit(xml(), AggregationOptions.DEFAULT, ProcessingPriority.LOW);
+        Set<Path> queuedSpools = spools();
+        queuedSpools.removeAll(before);
+        assertEquals(1, queuedSpools.size());
+
+        proximityJobService.destroy();
+
+        assertFalse(Files.exists(queuedSpools.iterator().next()));
+        assertEquals(ProximityJobStatus.State.FAILED, proximityJobService.getStatus(queued.id()).state());
+    }
+
+    private static Set<Path> spools() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("ovintocrew-job-"))
+                    .collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject jobs once the queue is full")
+    public void testQueueLimit() throws Exception {
+        proximityJobService = new ProximityJobService(employeeService, 1, 1, Duration.ofHours(1), Duration.ofSeconds(5), DataSize.ofMegabytes(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(employeeService.getEmployeeProximityResponse(any(InputStream.class), any(AggregationOptions.class), any(ProcessingPriority.class), any(ProximityListener.class)))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    release.await();
+                    return EmployeeProximityResponse.builder().withinRange(List.of()).build();
+                });
+
+        proximityJobService.submit(xml(), AggregationOptions.DEFAULT, ProcessingPriority.LOW);
+        proximityJobService.submit(xml(), AggregationOptions.DEFAULT, ProcessingPriority.LOW);
+        assertThrows(JobQueueFullException.class, () -> proximityJobService.submit(xml(), AggregationOptions.DEFAULT, ProcessingPriority.LOW));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should fail lookups of unknown jobs")
+    public void testUnknownJob() {
+        proximityJobService = new ProximityJobService(employeeService, 1, 1, Duration.ofHours(1), Duration.ofSeconds(5), DataSize.ofMegabytes(1));
+        assertThrows(JobNotFoundException.class, () -> proximityJobService.getStatus("missing"));
+    }
+
+    @Test
+    @DisplayName("Should reject uploads that exceed the maximum size once decompressed")
+    public void testUploadLimit() {
+        proximityJobService = new ProximityJobService(employeeService, 1, 1, Duration.ofHours(1), Duration.ofSeconds(5), DataSize.ofBytes(8));
+        assertThrows(UploadTooLargeException.class, () -> proximityJobService.submit(xml(), AggregationOptions.DEFAULT, ProcessingPriority.LOW));
+        verifyNoInteractions(employeeService);
+    }
+
+    private static InputStream xml() {
+        return new ByteArrayInputStream("<Company/>".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.ovintocrew.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResolutionSchedulerTest {
+
+    @Test
+    @DisplayName("Should interleave a small upload with a large one by weight instead of queuing it behind")
+    public void testSmallLaneIsNotStarved() throws Exception {
+        ResolutionScheduler scheduler = new ResolutionScheduler(1, 32);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        try (ResolutionScheduler.Lane bulk = scheduler.openLane("bulk", 1);
+             ResolutionScheduler.Lane interactive = scheduler.openLane("interactive", 4)) {
+            bulk.submit(() -> await(release));
+            for (int i = 0; i < 20; i++) {
+                bulk.submit(() -> order.add("bulk"));
+            }
+            for (int i = 0; i < 4; i++) {
+                interactive.submit(() -> order.add("interactive"));
+            }
+            release.countDown();
+        }
+
+        assertEquals(24, order.size());
+        assertEquals(List.of("interactive", "interactive", "interactive", "interactive"),
+                order.subList(0, 5).stream().filter("interactive"::equals).toList());
+    }
+
+    @Test
+    @DisplayName("Should never run more tasks than the global budget and wait for nested submissions on close")
+    public void testBudgetAndNestedTasks() {
+        ResolutionScheduler scheduler = new ResolutionScheduler(3, 1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+
+        try (ResolutionScheduler.Lane lane = scheduler.openLane("upload", 4)) {
+            for (int i = 0; i < 10; i++) {
+                lane.submit(() -> lane.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep();
+                    running.decrementAndGet();
+                    finished.incrementAndGet();
+                }));
+            }
+        }
+
+        assertEquals(10, finished.get());
+        assertTrue(maxRunning.get() <= 3);
+    }
+
+    @Test
+    @DisplayName("Should drop an abandoned lane's queued tasks when the closing thread is interrupted")
+    public void testInterruptedCloseAbandonsLane() throws Exception {
+        ResolutionScheduler scheduler = new ResolutionScheduler(1, 32);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+        AtomicReference<Throwable> closeError = new AtomicReference<>();
+
+        Thread upload = Thread.ofVirtual().start(() -> {
+            ResolutionScheduler.Lane lane = scheduler.openLane("abandoned", 1);
+            lane.submit(() -> {
+                started.countDown();
+                await(release);
+            });
+            for (int i = 0; i < 10; i++) {
+                lane.submit(ran::incrementAndGet);
+            }
+            try {
+                lane.close();
+            } catch (RuntimeException e) {
+                closeError.set(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        upload.interrupt();
+        upload.join(5_000);
+        release.countDown();
+
+        assertFalse(upload.isAlive());
+        assertInstanceOf(CancellationException.class, closeError.get());
+        try (ResolutionScheduler.Lane next = scheduler.openLane("next", 1)) {
+            next.submit(() -> { });
+        }
+        assertEquals(0, ran.get());
+    }
+
+    @Test
+    @DisplayName("Should drop the queued tasks of a lane whose task failed and report the failure on close")
+    public void testFailedTaskCancelsLane() {
+        ResolutionScheduler scheduler = new ResolutionScheduler(1, 2);
+        AtomicInteger ran = new AtomicInteger();
+        ResolutionScheduler.Lane lane = scheduler.openLane("failing", 1);
+
+        lane.submit(() -> {
+            throw new IllegalStateException("client went away");
+        });
+        for (int i = 0; i < 10; i++) {
+            lane.submit(ran::incrementAndGet);
+        }
+
+        CancellationException cancelled = assertThrows(CancellationException.class, lane::close);
+        assertInstanceOf(IllegalStateException.class, cancelled.getCause());
+        assertTrue(lane.isCancelled());
+        assertTrue(ran.get() < 10);
+    }
+
+    @Test
+    @DisplayName("Should block the submitting thread while the lane's backlog is full")
+    public void testBacklogIsBounded() throws Exception {
+        ResolutionScheduler scheduler = new ResolutionScheduler(1, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger submitted = new AtomicInteger();
+        AtomicInteger ran = new AtomicInteger();
+
+        Thread upload = Thread.ofVirtual().start(() -> {
+            try (ResolutionScheduler.Lane lane = scheduler.openLane("bounded", 1)) {
+                lane.submit(() -> {
+                    started.countDown();
+                    await(release);
+                });
+                for (int i = 0; i < 10; i++) {
+                    lane.submit(ran::incrementAndGet);
+                    submitted.incrementAndGet();
+                }
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 500 && upload.getState() != Thread.State.WAITING; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(Thread.State.WAITING, upload.getState());
+        assertEquals(2, submitted.get());
+        release.countDown();
+        upload.join(5_000);
+        assertFalse(upload.isAlive());
+        assertEquals(10, ran.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
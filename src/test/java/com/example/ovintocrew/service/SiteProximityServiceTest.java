@@ -0,0 +1,72 @@
+package com.example.ovintocrew.service;
+
+import com.example.ovintocrew.client.LocationClient;
+import com.example.ovintocrew.config.SitesProperties;
+import com.example.ovintocrew.metrics.ProximityMetrics;
+import com.example.ovintocrew.model.dto.Coordinates;
+import com.example.ovintocrew.model.dto.LocationResponse;
+import com.example.ovintocrew.model.dto.Site;
+import com.example.ovintocrew.model.dto.SiteProximityResponse;
+import com.example.ovintocrew.store.LocationStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SiteProximityServiceTest {
+
+    @Mock
+    private LocationClient locationClient;
+
+    @Mock
+    private DistanceBatcher distanceBatcher;
+
+    private SiteProximityService siteProximityService;
+
+    @BeforeEach
+    public void setUp() {
+        EmployeeService employeeService = new EmployeeService(locationClient, distanceBatcher,
+                new ProximityMetrics(new SimpleMeterRegistry()), new RosterSnapshot(true, Duration.ofHours(1)),
+                new LocationStore("", Duration.ofHours(1), 10, 2.0), new ResolutionScheduler(64, 2));
+        ReflectionTestUtils.setField(employeeService, "thresholdKm", 30.0);
+        siteProximityService = new SiteProximityService(employeeService,
+                new SitesProperties(List.of(new Site("hq", 51.10, 3.43), new Site("ghent", 51.05, 3.72))));
+    }
+
+    @Test
+    @DisplayName("Should match employees against sites without requesting any HQ road distance")
+    public void testSiteProximityNeedsNoRoadDistance() {
+        when(locationClient.getLocation("1")).thenReturn(new LocationResponse("1", new Coordinates(51.10, 3.43)));
+        when(locationClient.getLocation("2")).thenReturn(new LocationResponse("2", new Coordinates(51.05, 3.72)));
+
+        SiteProximityResponse response = siteProximityService.getSiteProximity(xml(), 5.0, null);
+
+        assertEquals(List.of("1"), response.sites().getFirst().withinRadius().stream().map(d -> d.employee().id()).toList());
+        assertEquals(List.of("2"), response.sites().get(1).withinRadius().stream().map(d -> d.employee().id()).toList());
+        assertEquals(2, response.nearestSites().size());
+        verifyNoInteractions(distanceBatcher);
+    }
+
+    private static InputStream xml() {
+        return new ByteArrayInputStream("""
+                <Company>
+                    <Employee id="1"><FirstName>John</FirstName></Employee>
+                    <Employee id="2"><FirstName>Jane</FirstName></Employee>
+                </Company>
+                """.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.ovintocrew.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LocationStore Tests")
+public class LocationStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    private LocationStore open() throws InterruptedException {
+        LocationStore store = new LocationStore(directory.toString(), Duration.ofHours(1), 10_000, 2.0);
+        assertTrue(store.awaitLoaded(Duration.ofSeconds(5)));
+        return store;
+    }
+
+    @Test
+    @DisplayName("Should restore stored locations after a restart, latest record winning")
+    public void testRestoresAfterRestart() throws Exception {
+        LocationStore store = open();
+        store.put("1", 51.1, 3.4, 12.5);
+        store.put("2", 50.0, 4.0, 80.0);
+        store.put("1", 51.2, 3.5, 14.0);
+        assertEquals(51.2, store.get("1").orElseThrow().latitude());
+        store.destroy();
+
+        LocationStore reopened = open();
+        StoredLocation first = reopened.get("1").orElseThrow();
+        assertEquals(51.2, first.latitude());
+        assertEquals(14.0, first.distanceKm());
+        assertEquals(80.0, reopened.get("2").orElseThrow().distanceKm());
+        assertTrue(reopened.get("3").isEmpty());
+        reopened.destroy();
+    }
+
+    @Test
+    @DisplayName("Should cut a torn record off the end and keep appending after it")
+    public void testTornTailIsIgnored() throws Exception {
+        LocationStore store = open();
+        store.put("1", 51.1, 3.4, 12.5);
+        store.destroy();
+        try (FileChannel channel = FileChannel.open(directory.resolve(LocationStore.FILE_NAME), StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        }
+
+        LocationStore reopened = open();
+        reopened.put("2", 50.0, 4.0, 80.0);
+        reopened.destroy();
+
+        LocationStore again = open();
+        assertEquals(12.5, again.get("1").orElseThrow().distanceKm());
+        assertEquals(80.0, again.get("2").orElseThrow().distanceKm());
+        again.destroy();
+    }
+
+    @Test
+    @DisplayName("Should compact the log once it holds far more records than employees")
+    public void testCompaction() throws Exception {
+        LocationStore store = open();
+        for (int i = 0; i < 5_000; i++) {
+            store.put(String.valueOf(i % 10), 51.0, 3.0, i);
+            if (i % 500 == 0) {
+                Thread.sleep(5);
+            }
+        }
+        store.destroy();
+
+        long size = Files.size(directory.resolve(LocationStore.FILE_NAME));
+        assertTrue(size < 2_000L * LocationStore.RECORD_SIZE, "log was not compacted: " + size + " bytes");
+        LocationStore reopened = open();
+        assertEquals(10, reopened.size());
+        assertEquals(4_999.0, reopened.get("9").orElseThrow().distanceKm());
+        reopened.destroy();
+    }
+}